@@ -5,12 +5,14 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 import java.util.Optional;
 import java.util.UUID;
 
 @SpringBootApplication
 @EnableJpaAuditing //등록, 수정 정보
+@EnableScheduling
 public class DataJpaApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,186 @@
+package study.datajpa.advisor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpa.shard.Shards;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+기록된 쿼리 조건/정렬 컬럼을 DB 에 있는 인덱스와 비교해서 CREATE INDEX 를 추천한다.
+- 후보 컬럼 순서 : equality 컬럼 -> 첫번째 range 컬럼 (range 가 없으면 정렬 컬럼)
+- 기존 인덱스의 앞쪽 컬럼이 후보와 같으면 이미 있는 것으로 본다.
+- 누적 실행 시간이 큰 순서로 정렬
+apply 하면 모든 shard 에 인덱스를 만들고, 관련 쿼리의 통계를 초기화해서 적용 전/후 평균 시간을 비교한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IndexAdvisor {
+
+    private final QueryShapeRecorder recorder;
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+
+    private final Map<String, Applied> applied = new ConcurrentHashMap<>();
+
+    public List<Recommendation> recommendations() {
+        Map<String, List<List<String>>> indexes = new HashMap<>();
+        Map<String, Candidate> candidates = new LinkedHashMap<>();
+
+        for (QueryShapeRecorder.ShapeStats stats : recorder.shapes()) {
+            QueryShape shape = stats.shape();
+            List<String> columns = columns(shape);
+            if (columns.isEmpty()) {
+                continue;
+            }
+
+            List<List<String>> existing = indexes.computeIfAbsent(shape.table(), this::indexes);
+            if (existing.stream().anyMatch(index -> covers(index, shape.equality().size(), columns))) {
+                continue;
+            }
+
+            String name = indexName(shape.table(), columns);
+            candidates.computeIfAbsent(name, n -> new Candidate(n, shape.table(), columns)).add(stats);
+        }
+
+        return candidates.values().stream()
+                .map(Candidate::toRecommendation)
+                .sorted(Comparator.comparingDouble(Recommendation::totalMillis).reversed()
+                        .thenComparing(Comparator.comparingLong(Recommendation::executions).reversed()))
+                .toList();
+    }
+
+    public AppliedReport apply(String name) {
+        Recommendation recommendation = recommendations().stream()
+                .filter(r -> r.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("no index recommendation: " + name));
+
+        List<QueryShapeRecorder.ShapeStats> matching = recorder.shapes().stream()
+                .filter(stats -> stats.shape().table().equals(recommendation.table())
+                        && indexName(stats.shape().table(), columns(stats.shape())).equals(name))
+                .toList();
+
+        shards.forEach(shard -> {
+            jdbcTemplate.execute(recommendation.ddl());
+            return null;
+        });
+        matching.forEach(QueryShapeRecorder.ShapeStats::reset);
+
+        Applied result = new Applied(recommendation.name(), recommendation.ddl(), recommendation.avgMicros(), matching);
+        applied.put(name, result);
+        log.info("index applied: {}", recommendation.ddl());
+        return result.report();
+    }
+
+    public List<AppliedReport> applied() {
+        return applied.values().stream().map(Applied::report).toList();
+    }
+
+    private static List<String> columns(QueryShape shape) {
+        List<String> columns = new ArrayList<>(shape.equality());
+        if (!shape.range().isEmpty()) {
+            columns.add(shape.range().get(0));
+        } else {
+            shape.sort().stream().filter(c -> !columns.contains(c)).forEach(columns::add);
+        }
+        return columns;
+    }
+
+    //equality 컬럼은 순서 상관 없이 앞쪽에, 나머지는 순서대로
+    private static boolean covers(List<String> index, int equalityCount, List<String> columns) {
+        if (index.size() < columns.size()) {
+            return false;
+        }
+        if (!new HashSet<>(index.subList(0, equalityCount)).equals(new HashSet<>(columns.subList(0, equalityCount)))) {
+            return false;
+        }
+        return index.subList(equalityCount, columns.size()).equals(columns.subList(equalityCount, columns.size()));
+    }
+
+    private static String indexName(String table, List<String> columns) {
+        return "idx_" + table + "_" + String.join("_", columns);
+    }
+
+    //인덱스 이름 -> 컬럼 (순서대로)
+    private List<List<String>> indexes(String table) {
+        return jdbcTemplate.execute((ConnectionCallback<List<List<String>>>) conn -> {
+            DatabaseMetaData metaData = conn.getMetaData();
+            Map<String, SortedMap<Short, String>> byName = new HashMap<>();
+            for (String name : List.of(table.toUpperCase(Locale.ROOT), table)) {
+                try (ResultSet rs = metaData.getIndexInfo(conn.getCatalog(), null, name, false, true)) {
+                    while (rs.next()) {
+                        String column = rs.getString("COLUMN_NAME");
+                        if (column != null) {
+                            byName.computeIfAbsent(rs.getString("INDEX_NAME"), k -> new TreeMap<>())
+                                    .put(rs.getShort("ORDINAL_POSITION"), column.toLowerCase(Locale.ROOT));
+                        }
+                    }
+                }
+                if (!byName.isEmpty()) {
+                    break;
+                }
+            }
+            return byName.values().stream().map(columns -> (List<String>) new ArrayList<>(columns.values())).toList();
+        });
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static double avgMicros(long nanos, long count) {
+        return count == 0 ? 0 : nanos / 1000.0 / count;
+    }
+
+    private static class Candidate {
+
+        private final String name;
+        private final String table;
+        private final List<String> columns;
+        private final Set<String> methods = new TreeSet<>();
+        private long executions;
+        private long nanos;
+
+        Candidate(String name, String table, List<String> columns) {
+            this.name = name;
+            this.table = table;
+            this.columns = columns;
+        }
+
+        void add(QueryShapeRecorder.ShapeStats stats) {
+            executions += stats.count().sum();
+            nanos += stats.nanos().sum();
+            methods.addAll(stats.methods());
+        }
+
+        Recommendation toRecommendation() {
+            String ddl = "create index " + name + " on " + table + " (" + String.join(", ", columns) + ")";
+            return new Recommendation(name, table, columns, ddl, executions, millis(nanos), avgMicros(nanos, executions), List.copyOf(methods));
+        }
+    }
+
+    public record Recommendation(String name, String table, List<String> columns, String ddl,
+                                 long executions, double totalMillis, double avgMicros, List<String> methods) {
+    }
+
+    private record Applied(String name, String ddl, double beforeAvgMicros, List<QueryShapeRecorder.ShapeStats> shapes) {
+
+        AppliedReport report() {
+            long count = shapes.stream().mapToLong(s -> s.count().sum()).sum();
+            long nanos = shapes.stream().mapToLong(s -> s.nanos().sum()).sum();
+            return new AppliedReport(name, ddl, beforeAvgMicros, avgMicros(nanos, count), count);
+        }
+    }
+
+    public record AppliedReport(String name, String ddl, double beforeAvgMicros, double afterAvgMicros, long afterExecutions) {
+    }
+}
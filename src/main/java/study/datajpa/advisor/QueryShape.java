@@ -0,0 +1,137 @@
+package study.datajpa.advisor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.HashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+SQL 한 문장에서 테이블 별로 인덱스 후보가 될 컬럼을 뽑는다.
+- equality : =, in (...), is null
+- range : >, <, >=, <=, between, like
+- sort : order by
+함수로 감싼 컬럼, <>, not 조건은 인덱스를 타지 않으므로 제외한다.
+ */
+record QueryShape(String table, List<String> equality, List<String> range, List<String> sort) {
+
+    private static final Pattern TABLE = Pattern.compile("(?:from|join|update)\\s+(\\w+)(?:\\s+(?!where\\b|set\\b|on\\b|left\\b|inner\\b|cross\\b|order\\b|group\\b)(\\w+))?");
+    private static final Pattern PREDICATE = Pattern.compile(
+            "(?:(\\w+)\\.)?(\\w+)\\s*(=|>=|<=|<>|!=|>|<|\\s+in\\s*\\(|\\s+between\\s|\\s+like\\s|\\s+is\\s+null|\\s+not\\s)");
+    private static final Pattern SORT = Pattern.compile("(?:(\\w+)\\.)?(\\w+)(?:\\s+(?:asc|desc))?(?:\\s+nulls\\s+(?:first|last))?");
+    private static final Set<String> KEYWORDS = Set.of("and", "or", "not", "where", "select", "exists", "null", "case", "when", "then", "else");
+
+    String key() {
+        return table + ":" + equality + ":" + range + ":" + sort;
+    }
+
+    static List<QueryShape> parse(String sql) {
+        String s = sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ").trim();
+        if (!(s.startsWith("select") || s.startsWith("update") || s.startsWith("delete"))) {
+            return List.of();
+        }
+
+        Map<String, String> aliases = new HashMap<>(); //alias -> table
+        String single = null;
+        Matcher tables = TABLE.matcher(s);
+        while (tables.find()) {
+            String table = tables.group(1);
+            String alias = tables.group(2) == null ? table : tables.group(2);
+            aliases.put(alias, table);
+            aliases.put(table, table);
+            single = single == null ? table : "";
+        }
+        if (aliases.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Builder> builders = new HashMap<>();
+        String where = clause(s, " where ", " group by ", " order by ", " limit ", " offset ", " fetch ", " for update");
+        if (where != null) {
+            Matcher predicates = PREDICATE.matcher(where);
+            while (predicates.find()) {
+                String column = predicates.group(2);
+                if (KEYWORDS.contains(column) || Character.isDigit(column.charAt(0))) {
+                    continue;
+                }
+                String operator = predicates.group(3).trim();
+                if (operator.equals("<>") || operator.equals("!=") || operator.equals("not")) {
+                    continue;
+                }
+                String table = resolve(aliases, single, predicates.group(1));
+                if (table == null) {
+                    continue;
+                }
+
+                Builder builder = builders.computeIfAbsent(table, Builder::new);
+                if (operator.equals("=") || operator.startsWith("in") || operator.startsWith("is")) {
+                    builder.equality.add(column);
+                } else {
+                    builder.range.add(column);
+                }
+            }
+        }
+
+        String orderBy = clause(s, " order by ", " limit ", " offset ", " fetch ", " for update");
+        if (orderBy != null) {
+            for (String part : orderBy.split(",")) {
+                Matcher sort = SORT.matcher(part.trim());
+                if (!sort.matches()) {
+                    break; //식으로 정렬하면 이후 컬럼은 인덱스로 정렬할 수 없다.
+                }
+                String table = resolve(aliases, single, sort.group(1));
+                if (table != null) {
+                    builders.computeIfAbsent(table, Builder::new).sort.add(sort.group(2));
+                }
+            }
+        }
+
+        List<QueryShape> shapes = new ArrayList<>();
+        builders.values().forEach(builder -> shapes.add(builder.build()));
+        return shapes;
+    }
+
+    private static String clause(String sql, String start, String... ends) {
+        int from = sql.indexOf(start);
+        if (from < 0) {
+            return null;
+        }
+        from += start.length();
+        int to = sql.length();
+        for (String end : ends) {
+            int i = sql.indexOf(end, from);
+            if (i >= 0 && i < to) {
+                to = i;
+            }
+        }
+        return sql.substring(from, to);
+    }
+
+    private static String resolve(Map<String, String> aliases, String single, String alias) {
+        if (alias == null) {
+            return single == null || single.isEmpty() ? null : single;
+        }
+        return aliases.get(alias);
+    }
+
+    private static class Builder {
+
+        private final String table;
+        private final Set<String> equality = new LinkedHashSet<>();
+        private final Set<String> range = new LinkedHashSet<>();
+        private final Set<String> sort = new LinkedHashSet<>();
+
+        Builder(String table) {
+            this.table = table;
+        }
+
+        QueryShape build() {
+            range.removeAll(equality);
+            return new QueryShape(table, List.copyOf(equality), List.copyOf(range), List.copyOf(sort));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package study.datajpa.advisor;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+리포지토리 메소드 안에서 실행된 SQL 의 조건/정렬 컬럼을 모은다.
+- 어떤 리포지토리 메소드인지는 RepositoryQueryAspect 가 알려준다.
+- 메소드 실행 시간을 그 안에서 실행된 SQL 들의 비용으로 나눠 기록한다.
+리포지토리 밖에서 실행된 SQL(지연 로딩 등)은 기록하지 않는다.
+ */
+@Component
+public class QueryShapeRecorder implements StatementInspector {
+
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+    private static final int MAX_PARSED = 1000;
+
+    //같은 SQL 은 한번만 파싱, 리터럴이 박힌 SQL 이 계속 들어와도 커지지 않도록 LRU 로 제한
+    private final Map<String, List<QueryShape>> parsed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<QueryShape>> eldest) {
+            return size() > MAX_PARSED;
+        }
+    });
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+
+    @Override
+    public String inspect(String sql) {
+        Call call = CURRENT.get();
+        if (call != null) {
+            call.shapes.addAll(parsed.computeIfAbsent(sql, QueryShape::parse));
+        }
+        return sql;
+    }
+
+    Call begin(String method) {
+        Call call = new Call(method, CURRENT.get());
+        CURRENT.set(call);
+        return call;
+    }
+
+    void end(Call call, long elapsedNanos) {
+        if (call.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(call.parent);
+        }
+        if (call.shapes.isEmpty()) {
+            return;
+        }
+
+        long share = elapsedNanos / call.shapes.size();
+        for (QueryShape shape : call.shapes) {
+            ShapeStats stats = shapes.computeIfAbsent(shape.key(), k -> new ShapeStats(shape));
+            stats.count.increment();
+            stats.nanos.add(share);
+            stats.methods.add(call.method);
+        }
+    }
+
+    Collection<ShapeStats> shapes() {
+        return shapes.values();
+    }
+
+    static class Call {
+
+        private final String method;
+        private final Call parent;
+        private final List<QueryShape> shapes = new ArrayList<>();
+
+        private Call(String method, Call parent) {
+            this.method = method;
+            this.parent = parent;
+        }
+    }
+
+    static class ShapeStats {
+
+        private final QueryShape shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final Set<String> methods = ConcurrentHashMap.newKeySet();
+
+        ShapeStats(QueryShape shape) {
+            this.shape = shape;
+        }
+
+        QueryShape shape() {
+            return shape;
+        }
+
+        LongAdder count() {
+            return count;
+        }
+
+        LongAdder nanos() {
+            return nanos;
+        }
+
+        Set<String> methods() {
+            return methods;
+        }
+
+        //인덱스 적용 전/후 비교용
+        void reset() {
+            count.reset();
+            nanos.reset();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpa.advisor;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import study.datajpa.aop.RepositoryPointcuts;
+
+/*
+리포지토리 메소드 실행 범위와 시간을 QueryShapeRecorder 에 알려준다.
+ */
+@Aspect
+@Component
+@Order(RepositoryPointcuts.QUERY_SHAPE_ORDER)
+@RequiredArgsConstructor
+public class RepositoryQueryAspect {
+
+    private final QueryShapeRecorder recorder;
+
+    @Around("study.datajpa.aop.RepositoryPointcuts.repositoryCall()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        String method = RepositoryPointcuts.methodName(joinPoint);
+        QueryShapeRecorder.Call call = recorder.begin(method);
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            recorder.end(call, System.nanoTime() - start);
+        }
+    }
+}
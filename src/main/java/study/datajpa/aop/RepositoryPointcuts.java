@@ -0,0 +1,42 @@
+package study.datajpa.aop;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+/*
+리포지토리 호출을 감싸는 aspect 들이 같이 쓰는 pointcut, 이름, 실행 순서
+- 리액티브 리포지토리는 호출 즉시 반환하므로 제외
+- 순서 (바깥 -> 안쪽) : shard routing -> bulkhead -> query timeout -> JFR -> query shape
+  shard 로 나눠진 호출은 각각 안쪽 aspect 를 거친다.
+  거절된 호출은 안쪽 aspect 가 기록하지 않고, query shape 는 SQL 에 가장 가까운 범위를 잰다.
+ */
+@Aspect
+public class RepositoryPointcuts {
+
+    public static final int SHARD_ROUTING_ORDER = 50;
+    public static final int BULKHEAD_ORDER = 100;
+    public static final int QUERY_TIMEOUT_ORDER = 200;
+    public static final int JFR_ORDER = 300;
+    public static final int QUERY_SHAPE_ORDER = 400;
+
+    @Pointcut("(target(org.springframework.data.repository.Repository) || @within(org.springframework.stereotype.Repository))" +
+            " && !within(study.datajpa.reactive..*)")
+    public void repositoryCall() {
+    }
+
+    //Spring Data 프록시 -> 리포지토리 인터페이스 이름
+    public static String repositoryName(Class<?> type) {
+        for (Class<?> i : type.getInterfaces()) {
+            if (i.getName().startsWith("study.datajpa.")) {
+                return i.getSimpleName();
+            }
+        }
+        return type.getSimpleName();
+    }
+
+    //리포지토리.메소드
+    public static String methodName(JoinPoint joinPoint) {
+        return repositoryName(joinPoint.getTarget().getClass()) + "." + joinPoint.getSignature().getName();
+    }
+}
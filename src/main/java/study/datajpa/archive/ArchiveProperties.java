@@ -0,0 +1,17 @@
+package study.datajpa.archive;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("archive")
+public class ArchiveProperties {
+
+    private Duration coldAfter = Duration.ofDays(730); //lastModifiedDate 가 이보다 오래되면 보관
+    private int batchSize = 1000; //트랜잭션 하나에 옮기는 행 수
+    private Duration pause = Duration.ofMillis(200); //batch 사이 대기 (운영 트래픽 보호)
+    private long maxRowsPerRun = 0; //0 -> 제한 없음, 넘으면 멈추고 다음 실행에서 이어간다.
+}
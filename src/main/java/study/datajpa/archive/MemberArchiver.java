@@ -0,0 +1,230 @@
+package study.datajpa.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.invalidation.InvalidationBus;
+import study.datajpa.shard.Shards;
+import study.datajpa.stats.TeamStatsRebuilder;
+
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+오래 변경되지 않은 회원을 member -> member_archive 로 옮긴다. (team_id 유지)
+- member_id 순서로 batch-size 씩, batch 하나가 트랜잭션 하나 (insert ... select -> delete)
+- batch 사이 pause 만큼 쉰다. max-rows-per-run 을 넘거나 stop 하면 멈춘다.
+- shard 마다 archive_checkpoint 에 (cutoff, 마지막 id) 를 같은 트랜잭션으로 기록 -> 중단된 실행은 같은 cutoff 로 이어서 진행
+- 영향 받은 팀의 team_stats 재계산 (보관된 회원은 통계에서 빠진다.), 다른 노드 캐시 무효화
+ */
+@Slf4j
+@Component
+public class MemberArchiver {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final TeamStatsRebuilder teamStatsRebuilder;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+    private final ArchiveProperties properties;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "member-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean stopRequested = new AtomicBoolean();
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final AtomicReference<Result> lastResult = new AtomicReference<>();
+
+    public MemberArchiver(NamedParameterJdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          Shards shards,
+                          TeamStatsRebuilder teamStatsRebuilder,
+                          ObjectProvider<InvalidationBus> invalidationBus,
+                          ArchiveProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.teamStatsRebuilder = teamStatsRebuilder;
+        this.invalidationBus = invalidationBus;
+        this.properties = properties;
+    }
+
+    @Scheduled(cron = "${archive.cron:-}")
+    public void scheduled() {
+        if (running.compareAndSet(false, true)) {
+            runClaimed();
+        }
+    }
+
+    //백그라운드 실행 (이미 실행 중이면 false), 제출 전에 실행 권한을 먼저 차지한다.
+    public boolean start() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            executor.submit(this::runClaimed);
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+            throw e;
+        }
+        return true;
+    }
+
+    public void stop() {
+        stopRequested.set(true);
+    }
+
+    public Result run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("member archiving is already running");
+        }
+        return runClaimed();
+    }
+
+    //running 을 차지한 상태에서만 호출, 끝나면 반납한다.
+    private Result runClaimed() {
+        stopRequested.set(false);
+        long[] moved = new long[1];
+        boolean[] complete = {true};
+        try {
+            shards.forEach(shard -> {
+                if (complete[0]) {
+                    ShardRun run = archiveShard(shard, properties.getMaxRowsPerRun() == 0 ? Long.MAX_VALUE : properties.getMaxRowsPerRun() - moved[0]);
+                    moved[0] += run.rows;
+                    complete[0] = run.complete;
+                }
+                return null;
+            });
+            Result result = new Result(moved[0], complete[0], LocalDateTime.now());
+            lastResult.set(result);
+            log.info("member archiving {}: {} rows", complete[0] ? "completed" : "paused", moved[0]);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private ShardRun archiveShard(int shard, long limit) {
+        Checkpoint checkpoint = checkpoint(shard);
+        long rows = 0;
+        long lastId = checkpoint.lastId();
+
+        while (rows < limit) {
+            if (stopRequested.get()) {
+                return new ShardRun(rows, false);
+            }
+
+            int size = (int) Math.min(properties.getBatchSize(), limit - rows);
+            long from = lastId;
+            Batch batch = transactionTemplate.execute(status -> archiveBatch(shard, checkpoint.cutoff(), from, size));
+            if (batch == null) { //더 이상 옮길 행이 없다. -> 다음 실행은 새 cutoff 로
+                jdbcTemplate.update("delete from archive_checkpoint where shard = :shard", new MapSqlParameterSource("shard", shard));
+                return new ShardRun(rows, true);
+            }
+
+            rows += batch.rows();
+            lastId = batch.lastId();
+            archived.add(batch.rows());
+            batches.increment();
+            pause();
+        }
+        return new ShardRun(rows, false);
+    }
+
+    private Batch archiveBatch(int shard, Timestamp cutoff, long fromId, int size) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("shard", shard)
+                .addValue("cutoff", cutoff)
+                .addValue("fromId", fromId)
+                .addValue("size", size);
+        List<Long> ids = jdbcTemplate.queryForList("select member_id from member " +
+                "where member_id > :fromId and last_modified_date < :cutoff order by member_id limit :size", params, Long.class);
+        if (ids.isEmpty()) {
+            return null;
+        }
+
+        params.addValue("ids", ids).addValue("lastId", ids.get(ids.size() - 1));
+        List<Long> teamIds = jdbcTemplate.queryForList("select distinct team_id from member " +
+                "where member_id in (:ids) and team_id is not null", params, Long.class);
+        jdbcTemplate.update("insert into member_archive (member_id, team_id, username, age, created_date, last_modified_date, " +
+                "created_by, last_modified_by, archived_date) " +
+                "select member_id, team_id, username, age, created_date, last_modified_date, created_by, last_modified_by, current_timestamp " +
+                "from member where member_id in (:ids)", params);
+        int rows = jdbcTemplate.update("delete from member where member_id in (:ids)", params);
+        jdbcTemplate.update("merge into archive_checkpoint (shard, cutoff, last_id) key (shard) values (:shard, :cutoff, :lastId)", params);
+
+        teamStatsRebuilder.rebuild(teamIds);
+        invalidationBus.ifAvailable(bus -> bus.invalidate(Member.class, ids)); //커밋 후 전송
+        return new Batch(ids.get(ids.size() - 1), rows);
+    }
+
+    //중단된 실행이 있으면 그 cutoff 와 위치에서 이어간다.
+    private Checkpoint checkpoint(int shard) {
+        jdbcTemplate.getJdbcTemplate().execute("create table if not exists archive_checkpoint (" +
+                "shard int primary key, cutoff timestamp not null, last_id bigint not null)");
+        List<Checkpoint> saved = jdbcTemplate.query("select cutoff, last_id from archive_checkpoint where shard = :shard",
+                new MapSqlParameterSource("shard", shard),
+                (rs, rowNum) -> new Checkpoint(rs.getTimestamp(1), rs.getLong(2)));
+        if (!saved.isEmpty()) {
+            log.info("resuming member archiving on shard {} after id {}", shard, saved.get(0).lastId());
+            return saved.get(0);
+        }
+        return new Checkpoint(Timestamp.valueOf(LocalDateTime.now().minus(properties.getColdAfter())), 0);
+    }
+
+    private void pause() {
+        if (properties.getPause().isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(properties.getPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stopRequested.set(true);
+        }
+    }
+
+    public Status status() {
+        return new Status(running.get(), archived.sum(), batches.sum(), lastResult.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stop();
+        executor.shutdownNow();
+    }
+
+    //complete : 옮길 행이 더 없음, false : 제한이나 stop 으로 멈춤 (다음 실행에서 이어감)
+    public record Result(long archived, boolean complete, LocalDateTime finishedAt) {
+    }
+
+    public record Status(boolean running, long archived, long batches, Result lastResult) {
+    }
+
+    private record Checkpoint(Timestamp cutoff, long lastId) {
+    }
+
+    private record Batch(long lastId, int rows) {
+    }
+
+    private record ShardRun(long rows, boolean complete) {
+    }
+}
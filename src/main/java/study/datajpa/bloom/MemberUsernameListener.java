@@ -0,0 +1,38 @@
+package study.datajpa.bloom;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.datajpa.entity.Member;
+import study.datajpa.invalidation.InvalidationBus;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.util.List;
+
+/*
+persist, update 시점에 username 을 필터에 추가한다.
+PostPersist 는 flush 시점에 호출되므로, flush 이전 조회에서 누락되지 않도록 Pre 콜백을 사용한다.
+(롤백되더라도 false positive 가 하나 늘어날 뿐이다.)
+다른 노드에는 커밋 후 InvalidationBus 로 전달한다. (UsernameInvalidationListener)
+ */
+public class MemberUsernameListener {
+
+    @Autowired
+    private ObjectProvider<UsernameBloomFilter> filter;
+
+    @Autowired
+    private ObjectProvider<InvalidationBus> invalidationBus;
+
+    @PrePersist
+    @PreUpdate
+    public void onSave(Member member) {
+        UsernameBloomFilter f = filter == null ? null : filter.getIfAvailable();
+        if (f != null) {
+            f.put(member.getUsername());
+        }
+        InvalidationBus bus = invalidationBus == null ? null : invalidationBus.getIfAvailable();
+        if (bus != null && member.getUsername() != null) {
+            bus.addKeys(Member.class, List.of(member.getUsername()));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package study.datajpa.bloom;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/*
+현재 트랜잭션에서 저장, 변경한 username
+- persist / update 콜백 (UsernameBloomFilter.put) 과 flush 전 변경 (Member.setUsername) 에서 기록
+- 조회마다 영속성 컨텍스트를 훑지 않고 set 만 확인한다.
+트랜잭션 리소스로 바인딩 -> REQUIRES_NEW 로 중단된 바깥 트랜잭션과 섞이지 않고, 완료되면 버린다.
+ */
+public final class TransactionUsernames {
+
+    private static final Object KEY = new Object();
+
+    private TransactionUsernames() {
+    }
+
+    public static void add(String username) {
+        if (username == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        usernames().add(username);
+    }
+
+    public static boolean contains(String username) {
+        Set<String> usernames = bound();
+        return usernames != null && usernames.contains(username);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> bound() {
+        return (Set<String>) TransactionSynchronizationManager.getResource(KEY);
+    }
+
+    private static Set<String> usernames() {
+        Set<String> bound = bound();
+        if (bound != null) {
+            return bound;
+        }
+
+        Set<String> usernames = new HashSet<>();
+        TransactionSynchronizationManager.bindResource(KEY, usernames);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(KEY);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(KEY, usernames);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+            }
+        });
+        return usernames;
+    }
+}
@@ -0,0 +1,240 @@
+package study.datajpa.bloom;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+username 존재 여부를 메모리에서 먼저 판별한다.
+false -> 확실히 없음 (DB 조회 생략), true -> 있을 수도 있음 (DB 조회)
+rebuild 가 끝나기 전까지는 (또는 stale 상태에서는) 항상 true 를 반환한다.
+rebuild 는 커밋된 행만 스캔한다. 아직 커밋되지 않은 트랜잭션의 username 이 빠지지 않도록
+최근 put 을 journal 에 남겨두고, 교체 직전에 새 필터에 다시 넣는다.
+journal 에서도 밀려난 경우를 위해, 트랜잭션 안에서 put 한 username 은 따로 기억한다. (TransactionUsernames)
+ */
+@Slf4j
+@Component
+public class UsernameBloomFilter {
+
+    private final long expectedInsertions;
+    private final double fpp;
+    private final long journalRetentionNanos;
+    private final int journalMaxSize;
+
+    private volatile BitArray current;
+    private volatile BitArray building; //rebuild 도중 추가된 username 도 함께 기록
+    private volatile boolean ready = false;
+    private volatile boolean stale = false; //벌크 변경 등으로 믿을 수 없음 -> 다음 rebuild 까지 항상 조회
+
+    private final Deque<Journaled> journal = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger journalSize = new AtomicInteger();
+
+    //false positive 측정 : 필터는 통과했지만 DB 에 없었던 조회
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public UsernameBloomFilter(@Value("${member.username-filter.expected-insertions:1000000}") long expectedInsertions,
+                               @Value("${member.username-filter.fpp:0.01}") double fpp,
+                               @Value("${member.username-filter.journal-retention:600000}") long journalRetentionMillis,
+                               @Value("${member.username-filter.journal-max-size:100000}") int journalMaxSize) {
+        this.expectedInsertions = expectedInsertions;
+        this.fpp = fpp;
+        this.journalRetentionNanos = TimeUnit.MILLISECONDS.toNanos(journalRetentionMillis);
+        this.journalMaxSize = journalMaxSize;
+        this.current = BitArray.create(expectedInsertions, fpp);
+    }
+
+    public boolean mightContain(String username) {
+        return check(username) != Check.ABSENT;
+    }
+
+    //필터가 실제로 판단했는지(NOT_READY) 까지 구분 -> false positive 는 MIGHT_CONTAIN 인 경우만 센다.
+    public Check check(String username) {
+        if (!ready || stale || username == null) {
+            return Check.NOT_READY;
+        }
+
+        if (current.mightContain(username)) {
+            passed.increment();
+            return Check.MIGHT_CONTAIN;
+        }
+        rejected.increment();
+        return Check.ABSENT;
+    }
+
+    public void put(String username) {
+        if (username == null) {
+            return;
+        }
+
+        journal(username);
+        TransactionUsernames.add(username);
+        current.put(username);
+        BitArray b = building;
+        if (b != null) {
+            b.put(username);
+        }
+    }
+
+    private void journal(String username) {
+        long now = System.nanoTime();
+        journal.addLast(new Journaled(username, now));
+        journalSize.incrementAndGet();
+
+        Journaled head;
+        while ((head = journal.peekFirst()) != null
+                && (now - head.nanos > journalRetentionNanos || journalSize.get() > journalMaxSize)) {
+            if (journal.remove(head)) {
+                journalSize.decrementAndGet();
+            }
+        }
+    }
+
+    //스트리밍 스캔으로 새 필터를 만든 뒤 한번에 교체한다.
+    public synchronized void rebuild(Consumer<Consumer<String>> scan) {
+        BitArray next = BitArray.create(expectedInsertions, fpp);
+        building = next;
+        try {
+            scan.accept(next::put);
+            journal.forEach(entry -> next.put(entry.username)); //스캔에 보이지 않았던 (커밋 전) username
+            current = next;
+            ready = true;
+            stale = false;
+        } finally {
+            building = null;
+        }
+
+        passed.reset();
+        rejected.reset();
+        falsePositives.reset();
+        log.info("username bloom filter rebuilt: bits={}, hashes={}", next.bitSize(), next.numHashes);
+    }
+
+    //다음 rebuild 가 끝날 때까지 필터를 사용하지 않는다.
+    public void markStale() {
+        stale = true;
+    }
+
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    public Stats stats() {
+        long p = passed.sum();
+        long fp = falsePositives.sum();
+        long negatives = rejected.sum() + fp;
+        double rate = negatives == 0 ? 0.0 : (double) fp / negatives;
+        return new Stats(ready && !stale, current.bitSize(), current.numHashes, fpp, p, rejected.sum(), fp, rate, journalSize.get());
+    }
+
+    public enum Check {
+        NOT_READY, ABSENT, MIGHT_CONTAIN
+    }
+
+    public record Stats(boolean ready, long bits, int hashes, double expectedFpp,
+                        long passed, long rejected, long falsePositives, double falsePositiveRate, int journalSize) {
+    }
+
+    private record Journaled(String username, long nanos) {
+    }
+
+
+    static class BitArray {
+
+        private final AtomicLongArray words;
+        private final long bitSize;
+        private final int numHashes;
+
+        //AtomicLongArray 크기 한도 -> 최대 약 2^37 bit
+        static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+        private BitArray(long bitSize, int numHashes) {
+            long required = Math.max(1, (bitSize + 63) >>> 6);
+            if (required > MAX_WORDS) {
+                throw new IllegalArgumentException("username filter too large: " + bitSize
+                        + " bits (lower expected-insertions or raise fpp)");
+            }
+            int wordCount = (int) required;
+            this.words = new AtomicLongArray(wordCount);
+            this.bitSize = (long) wordCount << 6;
+            this.numHashes = numHashes;
+        }
+
+        static BitArray create(long n, double p) {
+            if (!(p > 0.0 && p < 1.0)) {
+                throw new IllegalArgumentException("fpp must be between 0 and 1: " + p);
+            }
+            n = Math.max(1, n);
+            long m = (long) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+            int k = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+            return new BitArray(m, k);
+        }
+
+        long bitSize() {
+            return bitSize;
+        }
+
+        void put(String value) {
+            long h1 = hash64(value);
+            long h2 = fmix64(h1 ^ 0x9e3779b97f4a7c15L);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = index(h1 + i * h2);
+                long mask = 1L << bit;
+                int word = (int) (bit >>> 6);
+                long old;
+                do {
+                    old = words.get(word);
+                    if ((old & mask) != 0) {
+                        break;
+                    }
+                } while (!words.compareAndSet(word, old, old | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash64(value);
+            long h2 = fmix64(h1 ^ 0x9e3779b97f4a7c15L);
+            for (int i = 1; i <= numHashes; i++) {
+                long bit = index(h1 + i * h2);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //64bit 조합 -> 2^31 bit 를 넘는 필터도 전체를 사용
+        private long index(long combined) {
+            return (combined & Long.MAX_VALUE) % bitSize;
+        }
+
+        //FNV-1a + murmur3 fmix64
+        private static long hash64(String value) {
+            long h = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b;
+                h *= 0x100000001b3L;
+            }
+            return fmix64(h);
+        }
+
+        private static long fmix64(long h) {
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
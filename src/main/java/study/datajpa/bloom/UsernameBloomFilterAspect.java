@@ -0,0 +1,64 @@
+package study.datajpa.bloom;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+/*
+username 단건/목록 조회 앞에서 필터를 확인한다.
+필터에 없으면 DB 를 거치지 않고 빈 결과를 반환한다.
+(단, 이 트랜잭션에서 저장, 변경한 username 은 아직 필터에 없거나 rebuild 로 빠졌을 수 있으므로 DB 로 보낸다.)
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class UsernameBloomFilterAspect {
+
+    private final UsernameBloomFilter filter;
+
+    @Around("execution(* study.datajpa.repository.MemberRepository.findOptionalByUsername(String)) || " +
+            "execution(* study.datajpa.repository.MemberRepository.findMemberByUsername(String)) || " +
+            "execution(* study.datajpa.repository.MemberRepository.findByUsername(String))")
+    public Object guard(ProceedingJoinPoint joinPoint) throws Throwable {
+        String username = (String) joinPoint.getArgs()[0];
+        Class<?> returnType = ((MethodSignature) joinPoint.getSignature()).getReturnType();
+
+        UsernameBloomFilter.Check check = filter.check(username);
+        if (check == UsernameBloomFilter.Check.ABSENT && !TransactionUsernames.contains(username)) {
+            return empty(returnType);
+        }
+
+        Object result = joinPoint.proceed();
+        if (check == UsernameBloomFilter.Check.MIGHT_CONTAIN && isEmpty(result)) { //필터가 통과시킨 경우만 false positive
+            filter.recordFalsePositive();
+        }
+        return result;
+    }
+
+    private static Object empty(Class<?> returnType) {
+        if (Optional.class.equals(returnType)) {
+            return Optional.empty();
+        }
+        if (Collection.class.isAssignableFrom(returnType)) {
+            return Collections.emptyList();
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(Object result) {
+        if (result == null) {
+            return true;
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isEmpty();
+        }
+        return result instanceof Collection<?> collection && collection.isEmpty();
+    }
+}
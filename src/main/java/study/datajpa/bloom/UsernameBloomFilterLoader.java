@@ -0,0 +1,60 @@
+package study.datajpa.bloom;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.shard.Shards;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/*
+어플리케이션 시작 시점에 필터를 채우고, 주기적으로 다시 만든다. (삭제된 username 정리)
+ */
+@Component
+@RequiredArgsConstructor
+public class UsernameBloomFilterLoader {
+
+    private final UsernameBloomFilter filter;
+    private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final Shards shards;
+    private final TaskScheduler taskScheduler;
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        rebuild();
+    }
+
+    //벌크 변경 후 : 요청이 몰려도 rebuild 는 한번만 예약한다.
+    public void requestRebuild() {
+        if (rebuildRequested.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                rebuildRequested.set(false);
+                rebuild();
+            }, Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${member.username-filter.rebuild-interval:3600000}",
+            initialDelayString = "${member.username-filter.rebuild-interval:3600000}")
+    public void rebuild() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        filter.rebuild(sink -> shards.forEach(shard -> tx.execute(status -> { //모든 shard 의 username 을 한 필터에
+            try (Stream<String> usernames = memberRepository.streamAllUsernames()) { //Stream 은 트랜잭션 안에서만 사용 가능
+                usernames.forEach(sink);
+            }
+            return null;
+        })));
+    }
+}
@@ -0,0 +1,41 @@
+package study.datajpa.bloom;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.invalidation.InvalidationListener;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/*
+다른 노드에서 추가, 변경된 username 을 이 노드의 필터에도 넣는다. (InvalidationBus)
+- id 무효화 : 필터는 삭제를 지원하지 않는다. (삭제된 username 은 false positive 로 남고, rebuild 때 정리)
+- 타입 전체 무효화 (벌크 연산) : 어떤 username 이 바뀌었는지 모르므로 rebuild 가 끝날 때까지 필터를 쓰지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class UsernameInvalidationListener implements InvalidationListener {
+
+    private final UsernameBloomFilter filter;
+    private final UsernameBloomFilterLoader loader;
+
+    @Override
+    public void invalidate(Class<?> type, Set<Serializable> ids) {
+    }
+
+    @Override
+    public void invalidateAll(Class<?> type) {
+        if (Member.class.equals(type)) {
+            filter.markStale();
+            loader.requestRebuild();
+        }
+    }
+
+    @Override
+    public void keysAdded(Class<?> type, Set<String> keys) {
+        if (Member.class.equals(type)) {
+            keys.forEach(filter::put);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package study.datajpa.bulkhead;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import javax.persistence.QueryTimeoutException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/*
+동시 실행 수 제한 + 제한된 대기열
+limit 은 AIMD 로 조절한다.
+- 응답이 latency-threshold 이내 & limit 까지 사용 중 -> limit + 1/limit (요청 limit 개 마다 +1)
+- 느리거나 과부하 실패(timeout, DataAccessException) -> limit * backoff-ratio
+  감소는 RTT 당 한번 : 마지막 감소 이후에 시작한 요청의 신호만 다시 줄인다. (같은 혼잡으로 동시에 실패한 요청들이 limit 을 연달아 깎지 않도록)
+- 그 외 예외 (잘못된 요청 등) 는 부하와 무관하므로 limit 을 바꾸지 않는다. (느렸다면 감소)
+대기열이 가득 차거나 max-wait 안에 자리가 나지 않으면 바로 거절한다. (DB 가 느려질 때 요청이 쌓이지 않도록)
+ */
+public class AdaptiveBulkhead {
+
+    private final String name;
+    private final BulkheadProperties.Limits config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final LongSupplier clock;
+
+    private double limit;
+    private long lastDecrease = Long.MIN_VALUE;
+    private long decreases;
+    private int inFlight;
+    private int waiting;
+    private long accepted;
+    private long rejected;
+
+    public AdaptiveBulkhead(String name, BulkheadProperties.Limits config) {
+        this(name, config, System::nanoTime);
+    }
+
+    AdaptiveBulkhead(String name, BulkheadProperties.Limits config, LongSupplier clock) {
+        this.name = name;
+        this.config = config;
+        this.clock = clock;
+        this.limit = config.getInitialLimit();
+    }
+
+    public void acquire() {
+        lock.lock();
+        try {
+            if (inFlight < (int) limit) {
+                inFlight++;
+                accepted++;
+                return;
+            }
+            if (waiting >= config.getQueueSize()) {
+                throw reject();
+            }
+
+            waiting++;
+            try {
+                long nanos = config.getMaxWait().toNanos();
+                while (inFlight >= (int) limit) {
+                    if (nanos <= 0) {
+                        throw reject();
+                    }
+                    nanos = available.awaitNanos(nanos);
+                }
+                inFlight++;
+                accepted++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw reject();
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos, Outcome outcome) {
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            boolean saturated = inFlight >= (int) limit;
+            inFlight--;
+
+            boolean slow = latencyNanos > config.getLatencyThreshold().toNanos();
+            if (outcome == Outcome.OVERLOAD || slow) {
+                if (now - latencyNanos > lastDecrease) { //이 요청은 마지막 감소 이후에 시작했다.
+                    limit = Math.max(config.getMinLimit(), limit * config.getBackoffRatio());
+                    lastDecrease = now;
+                    decreases++;
+                }
+            } else if (outcome == Outcome.SUCCESS && saturated) {
+                limit = Math.min(config.getMaxLimit(), limit + 1.0 / limit);
+            }
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //과부하 신호로 볼 예외 : timeout, DB 접근 실패
+    public static Outcome outcomeOf(Throwable error) {
+        if (error == null) {
+            return Outcome.SUCCESS;
+        }
+        for (Throwable e = error; e != null; e = e.getCause()) {
+            if (e instanceof DataAccessException || e instanceof TransactionTimedOutException
+                    || e instanceof QueryTimeoutException || e instanceof SQLTimeoutException
+                    || e instanceof TimeoutException) {
+                return Outcome.OVERLOAD;
+            }
+        }
+        return Outcome.IGNORED;
+    }
+
+    private BulkheadFullException reject() {
+        rejected++;
+        return new BulkheadFullException(name, config.getRetryAfter().toSeconds());
+    }
+
+    public Snapshot snapshot() {
+        lock.lock();
+        try {
+            return new Snapshot(name, (int) limit, inFlight, waiting, accepted, rejected, decreases);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public enum Outcome {
+        SUCCESS, OVERLOAD, IGNORED
+    }
+
+    public record Snapshot(String name, int limit, int inFlight, int waiting, long accepted, long rejected, long decreases) {
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.bulkhead;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+@ConditionalOnProperty(prefix = "bulkhead", name = "enabled", matchIfMissing = true)
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final BulkheadRegistry registry;
+
+    public BulkheadConfig(BulkheadProperties properties) {
+        this.registry = new BulkheadRegistry(properties);
+    }
+
+    @Bean
+    public BulkheadRegistry bulkheadRegistry() {
+        return registry;
+    }
+
+    @Bean
+    public RepositoryBulkheadAspect repositoryBulkheadAspect() {
+        return new RepositoryBulkheadAspect(registry);
+    }
+
+    //리액티브(비동기) 요청, 운영 지표는 제외
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new BulkheadInterceptor(registry))
+                .excludePathPatterns("/reactive/**", "/stats/**");
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.bulkhead;
+
+import lombok.Getter;
+
+@Getter
+public class BulkheadFullException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public BulkheadFullException(String name, long retryAfterSeconds) {
+        super("bulkhead full: " + name);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,55 @@
+package study.datajpa.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/*
+컨트롤러 클래스 단위 bulkhead
+ */
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String BULKHEAD = BulkheadInterceptor.class.getName() + ".bulkhead";
+    private static final String START = BulkheadInterceptor.class.getName() + ".start";
+
+    private final BulkheadRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+
+        AdaptiveBulkhead bulkhead = registry.endpoint(handlerMethod.getBeanType().getSimpleName());
+        bulkhead.acquire(); //거절 -> BulkheadFullException -> 503
+        request.setAttribute(BULKHEAD, bulkhead);
+        request.setAttribute(START, System.nanoTime());
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(BULKHEAD) instanceof AdaptiveBulkhead bulkhead) {
+            request.removeAttribute(BULKHEAD);
+            long latency = System.nanoTime() - (long) request.getAttribute(START);
+            bulkhead.release(latency, outcome(response.getStatus(), ex));
+        }
+    }
+
+    //advice 가 처리한 예외는 ex 없이 상태 코드로만 온다. (timeout -> 504)
+    private static AdaptiveBulkhead.Outcome outcome(int status, Exception ex) {
+        if (status == HttpStatus.GATEWAY_TIMEOUT.value()) {
+            return AdaptiveBulkhead.Outcome.OVERLOAD;
+        }
+        if (ex != null) {
+            return AdaptiveBulkhead.outcomeOf(ex);
+        }
+        return status >= 500 ? AdaptiveBulkhead.Outcome.IGNORED : AdaptiveBulkhead.Outcome.SUCCESS;
+    }
+}
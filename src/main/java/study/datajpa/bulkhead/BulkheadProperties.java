@@ -0,0 +1,29 @@
+package study.datajpa.bulkhead;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+    private Limits endpoint = new Limits();   //컨트롤러 클래스 별
+    private Limits repository = new Limits(); //리포지토리 별
+
+    @Getter @Setter
+    public static class Limits {
+
+        private int initialLimit = 20;
+        private int minLimit = 2;
+        private int maxLimit = 200;
+        private int queueSize = 50;                            //대기 가능한 요청 수, 넘으면 즉시 거절
+        private Duration maxWait = Duration.ofMillis(500);     //대기 최대 시간
+        private Duration latencyThreshold = Duration.ofMillis(200); //이보다 느리면 limit 감소
+        private double backoffRatio = 0.9;
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,28 @@
+package study.datajpa.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@RequiredArgsConstructor
+public class BulkheadRegistry {
+
+    private final BulkheadProperties properties;
+    private final Map<String, AdaptiveBulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public AdaptiveBulkhead endpoint(String name) {
+        return bulkheads.computeIfAbsent("endpoint:" + name, k -> new AdaptiveBulkhead(k, properties.getEndpoint()));
+    }
+
+    public AdaptiveBulkhead repository(String name) {
+        return bulkheads.computeIfAbsent("repository:" + name, k -> new AdaptiveBulkhead(k, properties.getRepository()));
+    }
+
+    public List<AdaptiveBulkhead.Snapshot> snapshots() {
+        return bulkheads.values().stream()
+                .map(AdaptiveBulkhead::snapshot)
+                .toList();
+    }
+}
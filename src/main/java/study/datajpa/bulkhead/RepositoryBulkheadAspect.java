@@ -0,0 +1,36 @@
+package study.datajpa.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import study.datajpa.aop.RepositoryPointcuts;
+
+/*
+리포지토리 단위 bulkhead, limit 은 쿼리 응답 시간을 따라간다.
+ */
+@Aspect
+@Order(RepositoryPointcuts.BULKHEAD_ORDER) //shard routing 다음 : 거절된 호출은 다른 aspect 가 기록하지 않는다.
+@RequiredArgsConstructor
+public class RepositoryBulkheadAspect {
+
+    private final BulkheadRegistry registry;
+
+    @Around("study.datajpa.aop.RepositoryPointcuts.repositoryCall()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        AdaptiveBulkhead bulkhead = registry.repository(RepositoryPointcuts.repositoryName(joinPoint.getTarget().getClass()));
+        bulkhead.acquire();
+
+        long start = System.nanoTime();
+        Throwable error = null;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            error = e;
+            throw e;
+        } finally {
+            bulkhead.release(System.nanoTime() - start, AdaptiveBulkhead.outcomeOf(error));
+        }
+    }
+}
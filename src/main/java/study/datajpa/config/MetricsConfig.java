@@ -0,0 +1,22 @@
+package study.datajpa.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import study.datajpa.monitor.HibernateMetrics;
+import study.datajpa.monitor.HibernateMetricsInterceptor;
+
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+
+    private final HibernateMetrics hibernateMetrics;
+
+    //리액티브 요청은 다른 스레드에서 처리되므로 제외
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new HibernateMetricsInterceptor(hibernateMetrics))
+                .excludePathPatterns("/reactive/**", "/stats/**");
+    }
+}
@@ -0,0 +1,111 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.util.DriverDataSource;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import study.datajpa.advisor.QueryShapeRecorder;
+import study.datajpa.archive.ArchiveProperties;
+import study.datajpa.fetch.BatchFetchIntegrator;
+import study.datajpa.fetch.BatchFetchProperties;
+import study.datajpa.fetch.BatchFetchStats;
+import study.datajpa.jdbc.StatementCacheProperties;
+import study.datajpa.jdbc.StatementCacheStats;
+import study.datajpa.jdbc.StatementCachingDataSource;
+import study.datajpa.monitor.ConnectionUsageTracker;
+import study.datajpa.monitor.NonTransactionalStatementInspector;
+import study.datajpa.monitor.ScopedStatistics;
+import study.datajpa.monitor.SessionMetricsListener;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties({BatchFetchProperties.class, StatementCacheProperties.class, ArchiveProperties.class})
+public class PersistenceConfig {
+
+    //StatementInspector 는 하나만 등록할 수 있다.
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(NonTransactionalStatementInspector inspector,
+                                                                      QueryShapeRecorder queryShapeRecorder) {
+        StatementInspector composite = sql -> queryShapeRecorder.inspect(inspector.inspect(sql));
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, composite);
+    }
+
+    //요청, 트랜잭션 별 Hibernate 지표 (전역 통계 이벤트를 범위 별로도 기록)
+    @Bean
+    public HibernatePropertiesCustomizer scopedStatisticsCustomizer() {
+        StatisticsFactory factory = ScopedStatistics::new;
+        return properties -> {
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(AvailableSettings.STATS_BUILDER, factory);
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SessionMetricsListener.class.getName());
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false); //통계를 켜면 세션마다 info 로그가 남는다.
+        };
+    }
+
+    //연관관계 별 batch size (SessionFactory 생성 시점에 적용)
+    @Bean
+    public HibernatePropertiesCustomizer batchFetchCustomizer(BatchFetchStats stats) {
+        IntegratorProvider provider = () -> List.of(new BatchFetchIntegrator(stats.sizes(), stats));
+        return properties -> properties.put("hibernate.integrator_provider", provider);
+    }
+
+    //풀이 시작되기 전에 등록해야 한다.
+    @Bean
+    public static BeanPostProcessor hikariMetricsPostProcessor(ObjectProvider<ConnectionUsageTracker> tracker) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    dataSource.setMetricsTrackerFactory(tracker.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+
+    /*
+    풀이 만드는 물리 커넥션을 PreparedStatement 캐시로 감싼다. (설정 바인딩이 끝난 뒤, 풀 시작 전)
+    p6spy 가 after 단계에서 DataSource 를 감싸므로 before 단계에서 원본 HikariDataSource 에 설치한다.
+    PriorityOrdered -> 설정 바인딩(ConfigurationPropertiesBindingPostProcessor) 다음에 실행
+     */
+    @Bean
+    public static BeanPostProcessor statementCachePostProcessor(ObjectProvider<StatementCacheProperties> properties,
+                                                                ObjectProvider<StatementCacheStats> stats) {
+        return new StatementCachePostProcessor(properties, stats);
+    }
+
+    @RequiredArgsConstructor
+    static class StatementCachePostProcessor implements BeanPostProcessor, PriorityOrdered {
+
+        private final ObjectProvider<StatementCacheProperties> properties;
+        private final ObjectProvider<StatementCacheStats> stats;
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) {
+            if (bean instanceof HikariDataSource dataSource && dataSource.getDataSource() == null
+                    && properties.getObject().isEnabled()) {
+                DriverDataSource driver = new DriverDataSource(dataSource.getJdbcUrl(), dataSource.getDriverClassName(),
+                        dataSource.getDataSourceProperties(), dataSource.getUsername(), dataSource.getPassword());
+                dataSource.setDataSource(new StatementCachingDataSource(driver, properties.getObject().getMaxSize(), stats.getObject()));
+            }
+            return bean;
+        }
+
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+    }
+}
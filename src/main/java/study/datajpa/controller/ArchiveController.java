@@ -0,0 +1,36 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.archive.MemberArchiver;
+
+/*
+회원 보관 실행, 중지, 진행 상황 (실행은 백그라운드)
+ */
+@RestController
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final MemberArchiver memberArchiver;
+
+    @GetMapping("/archive/members")
+    public MemberArchiver.Status status() {
+        return memberArchiver.status();
+    }
+
+    @PostMapping("/archive/members/run")
+    public ResponseEntity<MemberArchiver.Status> run() {
+        HttpStatus status = memberArchiver.start() ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(memberArchiver.status());
+    }
+
+    @PostMapping("/archive/members/stop")
+    public MemberArchiver.Status stop() {
+        memberArchiver.stop();
+        return memberArchiver.status();
+    }
+}
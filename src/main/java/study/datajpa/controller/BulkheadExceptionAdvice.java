@@ -0,0 +1,22 @@
+package study.datajpa.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.datajpa.bulkhead.BulkheadFullException;
+
+/*
+과부하 -> 대기하지 않고 바로 503 + Retry-After
+ */
+@RestControllerAdvice
+public class BulkheadExceptionAdvice {
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<String> bulkheadFull(BulkheadFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfterSeconds())))
+                .body(e.getMessage());
+    }
+}
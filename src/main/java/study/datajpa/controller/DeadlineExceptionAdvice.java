@@ -0,0 +1,21 @@
+package study.datajpa.controller;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.datajpa.deadline.DeadlineExceededException;
+
+/*
+요청 마감 시간 초과 (쿼리 취소 포함) -> 504
+ */
+@RestControllerAdvice
+public class DeadlineExceptionAdvice {
+
+    @ExceptionHandler({DeadlineExceededException.class, QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<String> deadlineExceeded(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(e.getMessage());
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.LazyInitializationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.datajpa.monitor.LazyLoadReporter;
+
+/*
+OSIV 를 끄면 트랜잭션 밖의 지연 로딩은 예외가 된다. -> 집계 후 500
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class LazyLoadExceptionAdvice {
+
+    private final LazyLoadReporter reporter;
+
+    @ExceptionHandler(LazyInitializationException.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public String lazyInitialization(LazyInitializationException e) {
+        reporter.report(e.getMessage());
+        return "lazy loading outside transaction";
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.snapshot.MemberSnapshot;
+import study.datajpa.snapshot.MemberSnapshotService;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/*
+회원 분석 조회 : DB 대신 메모리 컬럼 스냅샷에서 집계 (refresh 주기 만큼 늦을 수 있다.)
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberAnalyticsController {
+
+    private final MemberSnapshotService snapshotService;
+
+    @GetMapping("/analytics/members")
+    public SnapshotInfo info() {
+        MemberSnapshot snapshot = snapshotService.current();
+        return new SnapshotInfo(snapshot.size(), snapshot.estimatedBytes(), snapshot.builtAt());
+    }
+
+    @GetMapping("/analytics/members/ages")
+    public AgeReport ages(@RequestParam(defaultValue = "10") int bucket,
+                          @RequestParam(required = false) Long teamId) {
+        if (bucket <= 0 || bucket > 200) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "bucket must be between 1 and 200");
+        }
+        MemberSnapshot snapshot = snapshotService.current();
+        return new AgeReport(snapshot.ageStats(teamId), snapshot.ageHistogram(bucket, teamId));
+    }
+
+    @GetMapping("/analytics/members/teams")
+    public Map<Long, Long> countByTeam() {
+        return snapshotService.current().countByTeam();
+    }
+
+    @GetMapping("/analytics/members/username-lengths")
+    public MemberSnapshot.LengthStats usernameLengths() {
+        return snapshotService.current().usernameLengths();
+    }
+
+    @PostMapping("/analytics/members/refresh")
+    public SnapshotInfo refresh() {
+        MemberSnapshot snapshot = snapshotService.refresh();
+        return new SnapshotInfo(snapshot.size(), snapshot.estimatedBytes(), snapshot.builtAt());
+    }
+
+    public record SnapshotInfo(int rows, long estimatedBytes, LocalDateTime builtAt) {
+    }
+
+    public record AgeReport(MemberSnapshot.AgeStats stats, long[] histogram) {
+    }
+}
@@ -4,25 +4,77 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.counter.MemberCounterBuffer;
+import study.datajpa.deadline.RequestDeadline;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberArchive;
+import study.datajpa.repository.MemberArchiveRepository;
+import study.datajpa.repository.MemberFetchGraphs;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.MemberVersion;
 
 import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberRepository memberRepository;
+    private final MemberArchiveRepository memberArchiveRepository;
+    private final MemberCounterBuffer memberCounterBuffer;
 
+    //조건부 조회 : 수정일만 먼저 조회해서 변경이 없으면 304 (엔티티 로딩, 직렬화 생략)
+    //member 에 없으면 보관된 회원 (member_archive), 보관 전 수정일로 검증한다. (보관된 행은 수정되지 않는다.)
     @GetMapping("/members/{id}")
-    public String findMember(@PathVariable("id") Long id) {
-        Member member = memberRepository.findById(id).get();
-        return member.getUsername();
+    @Transactional(readOnly = true)
+    @RequestDeadline(millis = 2000) //단건 조회
+    public String findMember(@PathVariable("id") Long id, WebRequest request) {
+        Optional<LocalDateTime> lastModified = memberRepository.findLastModifiedDateById(id);
+        if (lastModified.isPresent() && notModified(request, id, lastModified.get())) {
+            return null;
+        }
+
+        Optional<Member> member = memberRepository.findById(id);
+        if (member.isPresent()) {
+            return member.get().getUsername();
+        }
+
+        MemberArchive archived = memberArchiveRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (archived.getLastModifiedDate() != null && notModified(request, id, archived.getLastModifiedDate())) {
+            return null;
+        }
+        return archived.getUsername();
+    }
+
+    private static boolean notModified(WebRequest request, Long id, LocalDateTime lastModified) {
+        long millis = toMillis(lastModified);
+        return request.checkNotModified("W/\"" + id + "-" + millis + "\"", millis);
+    }
+
+    //나이 증감 : 바로 update 하지 않고 버퍼에 누적 -> 주기적으로 한번에 반영 (202 Accepted)
+    @PostMapping("/members/{id}/age")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void addAge(@PathVariable("id") Long id, @RequestParam("delta") int delta) {
+        memberCounterBuffer.addAge(id, delta);
     }
 
     //파라미터 인젝션 생략 가능, 권장 x -> 조회용으로만 사용
@@ -34,14 +86,58 @@ public class MemberController {
     //웹에서의 페이징
     //http://localhost:8080/members?page=0&size=5&sort=id,desc -> 이런식으로 웹 주소에 조건식을 추가할 수 있게 된다. (default 20개)
     //application.yml 또는 @PageableDefault 를 이용하여 default 값을 조절할 수 있다.
+    //페이지 ETag = 페이지 조건 + id 목록 + 최대 수정일(expand=team 이면 팀 수정일 포함) + 전체 개수
+    //expand : 함께 조회할 연관관계 ex) /members?expand=team -> 팀까지 한번에 조회 (N + 1 방지)
+    //OSIV off : 트랜잭션 안에서 DTO 변환까지 끝내고, 커넥션을 반납한 뒤 JSON 직렬화
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5, sort = "id") Pageable pageable) {
-        Page<Member> page = memberRepository.findAll(pageable);
-        Page<MemberDto> map = page.map(member -> new MemberDto(member));
+    @Transactional(readOnly = true)
+    public Page<MemberDto> list(@PageableDefault(size = 5, sort = "id") Pageable pageable,
+                                @RequestParam(value = "expand", required = false) Set<String> expand,
+                                WebRequest request) {
+        if (!MemberFetchGraphs.isAllowed(expand)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "expand allowed: " + MemberFetchGraphs.ALLOWED);
+        }
+
+        Page<MemberVersion> versions = memberRepository.findVersionsBy(pageable);
+        if (request.checkNotModified(pageETag(pageable, expand, versions))) {
+            return null;
+        }
+
+        boolean withTeam = expand != null && expand.contains("team");
+        Page<Member> page = memberRepository.findAll(pageable, expand);
+        Page<MemberDto> map = page.map(member -> withTeam ? new MemberDto(member, member.getTeam()) : new MemberDto(member));
 
         return map;
     }
 
+    private static String pageETag(Pageable pageable, Set<String> expand, Page<MemberVersion> versions) {
+        boolean withTeam = expand != null && expand.contains("team");
+        StringBuilder sb = new StringBuilder()
+                .append(expand == null ? "" : new TreeSet<>(expand)).append(':')
+                .append(pageable.getPageNumber()).append(':')
+                .append(pageable.getPageSize()).append(':')
+                .append(pageable.getSort()).append(':')
+                .append(versions.getTotalElements());
+
+        long maxModified = 0;
+        for (MemberVersion version : versions) {
+            sb.append(',').append(version.getId());
+            if (version.getLastModifiedDate() != null) {
+                maxModified = Math.max(maxModified, toMillis(version.getLastModifiedDate()));
+            }
+            if (withTeam && version.getTeamLastModifiedDate() != null) { //팀 이름 변경 등
+                maxModified = Math.max(maxModified, toMillis(version.getTeamLastModifiedDate()));
+            }
+        }
+        sb.append('@').append(maxModified);
+
+        return "W/\"" + DigestUtils.md5DigestAsHex(sb.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
 //    @PostConstruct
     public void init() {
         for (int i = 0; i < 100; i++) {
@@ -0,0 +1,126 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.advisor.IndexAdvisor;
+import study.datajpa.bloom.UsernameBloomFilter;
+import study.datajpa.bulkhead.AdaptiveBulkhead;
+import study.datajpa.bulkhead.BulkheadRegistry;
+import study.datajpa.counter.MemberCounterBuffer;
+import study.datajpa.deadline.QueryTimeoutStats;
+import study.datajpa.fetch.BatchFetchStats;
+import study.datajpa.invalidation.InvalidationBus;
+import study.datajpa.jdbc.StatementCacheStats;
+import study.datajpa.monitor.ConnectionUsageTracker;
+import study.datajpa.monitor.HibernateMetrics;
+import study.datajpa.monitor.LazyLoadReporter;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+운영 지표 조회용
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final UsernameBloomFilter usernameBloomFilter;
+    private final ConnectionUsageTracker connectionUsageTracker;
+    private final LazyLoadReporter lazyLoadReporter;
+    private final MemberCounterBuffer memberCounterBuffer;
+    private final ObjectProvider<BulkheadRegistry> bulkheadRegistry;
+    private final IndexAdvisor indexAdvisor;
+    private final QueryTimeoutStats queryTimeoutStats;
+    private final BatchFetchStats batchFetchStats;
+    private final HibernateMetrics hibernateMetrics;
+    private final StatementCacheStats statementCacheStats;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+
+    @GetMapping("/stats/username-filter")
+    public UsernameBloomFilter.Stats usernameFilter() {
+        return usernameBloomFilter.stats();
+    }
+
+    @GetMapping("/stats/connections")
+    public ConnectionUsageTracker.Stats connections() {
+        return connectionUsageTracker.stats();
+    }
+
+    @GetMapping("/stats/lazy-loads")
+    public Map<String, Long> lazyLoads() {
+        return lazyLoadReporter.counts();
+    }
+
+    @GetMapping("/stats/counter-buffer")
+    public MemberCounterBuffer.Stats counterBuffer() {
+        return memberCounterBuffer.stats();
+    }
+
+    @GetMapping("/stats/counter-buffer/dead-letters")
+    public List<MemberCounterBuffer.DeadLetter> counterBufferDeadLetters() {
+        return memberCounterBuffer.deadLetters();
+    }
+
+    @GetMapping("/stats/bulkheads")
+    public List<AdaptiveBulkhead.Snapshot> bulkheads() {
+        BulkheadRegistry registry = bulkheadRegistry.getIfAvailable();
+        return registry == null ? List.of() : registry.snapshots();
+    }
+
+    @GetMapping("/stats/query-timeouts")
+    public Map<String, Long> queryTimeouts() {
+        return queryTimeoutStats.counts();
+    }
+
+    @GetMapping("/stats/statement-cache")
+    public StatementCacheStats.Stats statementCache() {
+        return statementCacheStats.stats();
+    }
+
+    @GetMapping("/stats/invalidation")
+    public InvalidationBus.Stats invalidation() {
+        InvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "invalidation disabled");
+        }
+        return bus.stats();
+    }
+
+    //엔드포인트, 트랜잭션 별 엔티티 로딩, 컬렉션 초기화, flush, SQL 실행, 캐시 hit/miss
+    @GetMapping("/stats/hibernate")
+    public HibernateMetrics.Report hibernate() {
+        return hibernateMetrics.report();
+    }
+
+    @GetMapping("/stats/batch-fetch")
+    public List<BatchFetchStats.Snapshot> batchFetch() {
+        return batchFetchStats.snapshots();
+    }
+
+    @GetMapping("/stats/index-advice")
+    public List<IndexAdvisor.Recommendation> indexAdvice() {
+        return indexAdvisor.recommendations();
+    }
+
+    @GetMapping("/stats/index-advice/applied")
+    public List<IndexAdvisor.AppliedReport> appliedIndexes() {
+        return indexAdvisor.applied();
+    }
+
+    //추천 인덱스 생성, 이후 /applied 에서 적용 전/후 평균 시간 비교
+    @PostMapping("/stats/index-advice/{name}/apply")
+    public IndexAdvisor.AppliedReport applyIndex(@PathVariable String name) {
+        try {
+            return indexAdvisor.apply(name);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+}
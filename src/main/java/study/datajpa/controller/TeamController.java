@@ -0,0 +1,44 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.dto.TeamStatsDto;
+import study.datajpa.repository.BulkDeleteRepository;
+import study.datajpa.repository.TeamStatsRepository;
+import study.datajpa.stats.TeamStatsRebuilder;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamStatsRepository teamStatsRepository;
+    private final TeamStatsRebuilder teamStatsRebuilder;
+    private final BulkDeleteRepository bulkDeleteRepository;
+
+    //대시보드 : 회원을 스캔하지 않고 팀 수 만큼만 조회
+    @GetMapping("/teams/stats")
+    @Transactional(readOnly = true)
+    public List<TeamStatsDto> stats() {
+        return teamStatsRepository.findAll().stream()
+                .map(TeamStatsDto::new)
+                .toList();
+    }
+
+    @PostMapping("/teams/stats/rebuild")
+    public void rebuildStats() {
+        teamStatsRebuilder.rebuildAll();
+    }
+
+    //팀과 소속 회원을 로딩 없이 삭제, 삭제된 행 수 반환
+    @DeleteMapping("/teams/{id}")
+    public BulkDeleteRepository.Result delete(@PathVariable Long id) {
+        return bulkDeleteRepository.deleteTeamCascade(id);
+    }
+}
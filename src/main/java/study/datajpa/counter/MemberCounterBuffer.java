@@ -0,0 +1,288 @@
+package study.datajpa.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.invalidation.InvalidationBus;
+import study.datajpa.shard.Shards;
+import study.datajpa.stats.TeamStatsWriter;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+같은 회원의 숫자 필드(age)를 초당 여러번 증가시키는 경우, 매번 update 하지 않고 메모리에 누적했다가 한번에 반영한다. (write-behind)
+- 회원 id 별 lock-free 카운터에 누적
+- 대기 중인 회원 수가 max-pending 을 넘거나 flush-interval 마다 batch update (age = age + ?)
+- chunk 단위로 재시도하고, 끝내 실패한 chunk 는 dead letter 로 남긴다.
+- team_stats 는 나이 합, 분포만 증분 반영 (재계산 x)
+- 종료 시점에 남은 값을 모두 반영, 반영하지 못한 값은 로그로 남긴다. 종료 이후에 들어온 값은 바로 반영 (write-through)
+DB 에 직접 반영하므로, 이미 영속성 컨텍스트에 있는 엔티티에는 반영되지 않는다.
+ */
+@Slf4j
+@Component
+public class MemberCounterBuffer {
+
+    private static final long DEAD = Long.MIN_VALUE; //map 에서 제거된 카운터
+
+    private final Map<Long, AtomicLong> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Shards shards;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+    private final int maxPending;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "member-counter-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final Deque<DeadLetter> deadLetters = new ArrayDeque<>();
+
+    public MemberCounterBuffer(JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               Shards shards,
+                               ObjectProvider<InvalidationBus> invalidationBus,
+                               @Value("${member.counter-buffer.max-pending:10000}") int maxPending,
+                               @Value("${member.counter-buffer.batch-size:500}") int batchSize,
+                               @Value("${member.counter-buffer.flush-interval:1000}") long flushIntervalMillis,
+                               @Value("${member.counter-buffer.max-attempts:3}") int maxAttempts,
+                               @Value("${member.counter-buffer.retry-backoff:100}") long retryBackoffMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = shards;
+        this.invalidationBus = invalidationBus;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMillis = retryBackoffMillis;
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void addAge(Long memberId, long delta) {
+        if (delta == 0) {
+            return;
+        }
+
+        while (true) {
+            AtomicLong counter = pending.computeIfAbsent(memberId, id -> new AtomicLong());
+            long current = counter.get();
+            if (current == DEAD) {
+                continue; //flush 가 막 제거한 카운터 -> 새 카운터로 다시 시도
+            }
+            if (counter.compareAndSet(current, current + delta)) {
+                break;
+            }
+        }
+        increments.increment();
+
+        //종료가 시작된 뒤 -> 마지막 flush 가 이미 지나갔을 수 있으므로 호출한 스레드에서 바로 반영
+        if (closed) {
+            flush();
+            return;
+        }
+        if (pending.size() >= maxPending && !flusher.isShutdown() && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+    }
+
+    //대기 중인 값을 꺼내서 chunk 단위 batch 로 반영, 실패한 chunk 는 재시도 후 dead letter 로 보낸다.
+    public synchronized int flush() {
+        flushRequested.set(false);
+
+        List<Object[]> batch = new ArrayList<>();
+        for (Map.Entry<Long, AtomicLong> entry : pending.entrySet()) {
+            AtomicLong counter = entry.getValue();
+            long delta = counter.getAndSet(0);
+            if (delta == 0 && counter.compareAndSet(0, DEAD)) {
+                pending.remove(entry.getKey(), counter);
+                continue;
+            }
+            if (delta != 0) {
+                batch.add(new Object[]{delta, entry.getKey()});
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        //chunk 는 한 shard 의 회원으로만 구성한다.
+        batch.sort(Comparator.comparingInt(row -> shards.shardOf((Long) row[1])));
+
+        int written = 0;
+        int start = 0;
+        while (start < batch.size()) {
+            int shard = shards.shardOf((Long) batch.get(start)[1]);
+            int end = start;
+            while (end < batch.size() && end - start < batchSize && shards.shardOf((Long) batch.get(end)[1]) == shard) {
+                end++;
+            }
+            List<Object[]> chunk = batch.subList(start, end);
+            if (writeWithRetry(shard, chunk)) {
+                written += chunk.size();
+            }
+            start = end;
+        }
+
+        rowsWritten.add(written);
+        return written;
+    }
+
+    //chunk 마다 독립적으로 재시도, 한 chunk 의 실패가 다른 chunk 를 막지 않는다.
+    private boolean writeWithRetry(int shard, List<Object[]> chunk) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                shards.call(shard, () -> {
+                    transactionTemplate.executeWithoutResult(status -> write(chunk));
+                    return null;
+                });
+                return true;
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    deadLetter(chunk, e);
+                    return false;
+                }
+                log.warn("member counter chunk failed (attempt {}/{}), {} rows", attempt, maxAttempts, chunk.size(), e);
+                if (!backoff(attempt)) {
+                    deadLetter(chunk, e);
+                    return false;
+                }
+            }
+        }
+    }
+
+    private boolean backoff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMillis * attempt);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    //재시도를 모두 실패한 chunk : 회원 id, 증감 값을 남겨서 수동으로 반영할 수 있게 한다.
+    private void deadLetter(List<Object[]> chunk, RuntimeException cause) {
+        List<DeadLetter> letters = chunk.stream().map(row -> new DeadLetter((Long) row[1], (Long) row[0])).toList();
+        log.error("member counter chunk dead-lettered after {} attempts: {}", maxAttempts, letters, cause);
+        synchronized (deadLetters) {
+            for (DeadLetter letter : letters) {
+                if (deadLetters.size() >= maxPending) {
+                    deadLetters.pollFirst(); //로그에는 남아있다.
+                }
+                deadLetters.addLast(letter);
+            }
+        }
+        deadLettered.add(letters.size());
+    }
+
+    private void write(List<Object[]> chunk) {
+        Object[] ids = chunk.stream().map(row -> row[1]).toArray();
+        String in = String.join(",", Collections.nCopies(ids.length, "?"));
+
+        //변경 전 팀, 나이 (다른 트랜잭션의 변경과 섞이지 않도록 row lock)
+        Map<Long, Object[]> before = new HashMap<>();
+        jdbcTemplate.query("select member_id, team_id, age from member where member_id in (" + in + ") for update", rs -> {
+            long teamId = rs.getLong(2);
+            before.put(rs.getLong(1), new Object[]{rs.wasNull() ? null : teamId, rs.getInt(3)});
+        }, ids);
+
+        jdbcTemplate.batchUpdate("update member set age = age + ?, last_modified_date = current_timestamp where member_id = ?", chunk);
+
+        //team_stats 읽기 모델은 재계산하지 않고 증분만 반영한다.
+        Map<Long, List<int[]>> changesByTeam = new HashMap<>();
+        for (Object[] row : chunk) {
+            Object[] member = before.get((Long) row[1]);
+            if (member == null || member[0] == null) {
+                continue;
+            }
+            int oldAge = (int) member[1];
+            int newAge = Math.toIntExact(oldAge + (Long) row[0]);
+            changesByTeam.computeIfAbsent((Long) member[0], teamId -> new ArrayList<>()).add(new int[]{oldAge, newAge});
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) conn -> {
+            for (Map.Entry<Long, List<int[]>> entry : changesByTeam.entrySet()) {
+                List<int[]> changes = entry.getValue();
+                TeamStatsWriter.changeAges(conn, entry.getKey(),
+                        changes.stream().mapToInt(change -> change[0]).toArray(),
+                        changes.stream().mapToInt(change -> change[1]).toArray());
+            }
+            return null;
+        });
+
+        invalidationBus.ifAvailable(bus -> bus.invalidate(Member.class, chunk.stream().map(row -> (Long) row[1]).toList()));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("member counter flush failed", e); //다음 주기에 재시도
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        closed = true;
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        try {
+            flush(); //남은 값 모두 반영 (chunk 별 재시도 포함)
+        } catch (RuntimeException e) {
+            log.error("member counter final flush failed", e);
+        }
+
+        //그래도 반영하지 못한 값은 로그로 남긴다.
+        List<DeadLetter> lost = pending.entrySet().stream()
+                .filter(entry -> entry.getValue().get() != 0 && entry.getValue().get() != DEAD)
+                .map(entry -> new DeadLetter(entry.getKey(), entry.getValue().get()))
+                .toList();
+        if (!lost.isEmpty()) {
+            log.error("member counter shutdown with unwritten deltas: {}", lost);
+        }
+    }
+
+    public List<DeadLetter> deadLetters() {
+        synchronized (deadLetters) {
+            return List.copyOf(deadLetters);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(pending.size(), increments.sum(), rowsWritten.sum(), deadLettered.sum());
+    }
+
+    public record Stats(int pendingMembers, long increments, long rowsWritten, long deadLettered) {
+    }
+
+    public record DeadLetter(Long memberId, long delta) {
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa.deadline;
+
+import java.time.Duration;
+
+/*
+현재 요청의 마감 시각 (요청 스레드에만 존재)
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Long> DEADLINE = new ThreadLocal<>(); //System.nanoTime 기준
+
+    private Deadline() {
+    }
+
+    public static void start(Duration timeout) {
+        DEADLINE.set(System.nanoTime() + timeout.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE.remove();
+    }
+
+    public static boolean isSet() {
+        return DEADLINE.get() != null;
+    }
+
+    //남은 시간(ms), 마감이 없으면 Long.MAX_VALUE
+    public static long remainingMillis() {
+        Long deadline = DEADLINE.get();
+        if (deadline == null) {
+            return Long.MAX_VALUE;
+        }
+        return (deadline - System.nanoTime()) / 1_000_000;
+    }
+}
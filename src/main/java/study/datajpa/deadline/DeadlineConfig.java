@@ -0,0 +1,38 @@
+package study.datajpa.deadline;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineConfig implements WebMvcConfigurer {
+
+    private final DeadlineProperties properties;
+
+    public DeadlineConfig(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    //Spring Boot 기본 JpaTransactionManager 대신 등록
+    @Bean
+    public PlatformTransactionManager transactionManager(ObjectProvider<TransactionManagerCustomizers> customizers) {
+        DeadlineJpaTransactionManager transactionManager = new DeadlineJpaTransactionManager();
+        customizers.ifAvailable(c -> c.customize(transactionManager));
+        return transactionManager;
+    }
+
+    //리액티브(비동기) 요청, 운영 지표는 제외, bulkhead 대기 전에 마감 시간부터 정한다.
+    @Override
+    public void addInterceptors(InterceptorRegistry interceptors) {
+        interceptors.addInterceptor(new DeadlineInterceptor(properties))
+                .excludePathPatterns("/reactive/**", "/stats/**")
+                .order(Ordered.HIGHEST_PRECEDENCE);
+    }
+}
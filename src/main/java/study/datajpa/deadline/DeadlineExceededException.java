@@ -0,0 +1,8 @@
+package study.datajpa.deadline;
+
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.deadline;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/*
+요청 마감 시간 결정 : 헤더(ms) -> @RequestDeadline(메소드, 클래스) -> 기본값
+ */
+@RequiredArgsConstructor
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    private final DeadlineProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+
+        Duration timeout = fromHeader(request.getHeader(properties.getHeader()));
+        if (timeout == null) {
+            timeout = fromAnnotation(handler);
+        }
+        if (timeout == null) {
+            timeout = properties.getDefaultTimeout();
+        }
+        if (timeout.compareTo(properties.getMaxTimeout()) > 0) {
+            timeout = properties.getMaxTimeout();
+        }
+        if (timeout.isZero() || timeout.isNegative()) {
+            throw new DeadlineExceededException("request deadline already exceeded");
+        }
+
+        Deadline.start(timeout);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Deadline.clear();
+    }
+
+    private static Duration fromHeader(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofMillis(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Duration fromAnnotation(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return null;
+        }
+        RequestDeadline deadline = handlerMethod.getMethodAnnotation(RequestDeadline.class);
+        if (deadline == null) {
+            deadline = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequestDeadline.class);
+        }
+        return deadline == null ? null : Duration.ofMillis(deadline.millis());
+    }
+}
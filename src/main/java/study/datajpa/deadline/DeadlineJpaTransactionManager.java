@@ -0,0 +1,29 @@
+package study.datajpa.deadline;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+
+/*
+요청의 남은 시간을 트랜잭션 timeout 으로 사용한다.
+Hibernate 는 트랜잭션 timeout 에서 남은 시간을 계산해 모든 JDBC Statement 에 setQueryTimeout 을 건다. (지연 로딩, flush 포함)
+-> 시간이 지나면 DB 가 쿼리를 취소하고 QueryTimeoutException
+JDBC timeout 단위는 초이므로 남은 시간은 올림한다.
+ */
+public class DeadlineJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected int determineTimeout(TransactionDefinition definition) {
+        int timeout = super.determineTimeout(definition);
+        if (!Deadline.isSet()) {
+            return timeout;
+        }
+
+        long remaining = Deadline.remainingMillis();
+        if (remaining <= 0) {
+            throw new TransactionTimedOutException("request deadline exceeded before transaction start"); //TransactionException 만 그대로 전달된다.
+        }
+        int remainingSeconds = (int) Math.min(Integer.MAX_VALUE, (remaining + 999) / 1000);
+        return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.deadline;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties("deadline")
+public class DeadlineProperties {
+
+    private String header = "X-Request-Timeout";         //남은 시간(ms)
+    private Duration defaultTimeout = Duration.ofSeconds(10); //헤더, @RequestDeadline 둘 다 없을 때
+    private Duration maxTimeout = Duration.ofSeconds(30);     //헤더 값 상한
+}
@@ -0,0 +1,30 @@
+package study.datajpa.deadline;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import study.datajpa.aop.RepositoryPointcuts;
+
+@Aspect
+@Component
+@Order(RepositoryPointcuts.QUERY_TIMEOUT_ORDER)
+@RequiredArgsConstructor
+public class QueryTimeoutAspect {
+
+    private final QueryTimeoutStats stats;
+
+    @Around("study.datajpa.aop.RepositoryPointcuts.repositoryCall()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException e) {
+            if (QueryTimeoutStats.isTimeout(e)) {
+                stats.record(RepositoryPointcuts.methodName(joinPoint));
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.deadline;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionTimedOutException;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+리포지토리 메소드 별 timeout 횟수
+ */
+@Component
+public class QueryTimeoutStats {
+
+    private final Map<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+
+    public void record(String method) {
+        timeouts.computeIfAbsent(method, k -> new LongAdder()).increment();
+    }
+
+    public Map<String, Long> counts() {
+        Map<String, Long> result = new TreeMap<>();
+        timeouts.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    //JDBC 취소(QueryTimeoutException), 시작 전 마감 초과, Hibernate 의 "transaction timeout expired"
+    public static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof org.springframework.dao.QueryTimeoutException
+                    || t instanceof javax.persistence.QueryTimeoutException
+                    || t instanceof org.hibernate.QueryTimeoutException
+                    || t instanceof TransactionTimedOutException
+                    || t instanceof DeadlineExceededException
+                    || (t instanceof org.hibernate.TransactionException && String.valueOf(t.getMessage()).contains("timeout"))) {
+                return true;
+            }
+            if (t.getCause() == t) {
+                break;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,14 @@
+package study.datajpa.deadline;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//엔드포인트 별 기본 마감 시간 (헤더가 없을 때)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestDeadline {
+
+    long millis();
+}
@@ -2,6 +2,7 @@ package study.datajpa.dto;
 
 import lombok.Data;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
 
 @Data
 public class MemberDto {
@@ -22,4 +23,10 @@ public class MemberDto {
         id = member.getId();
         username = member.getUsername();
     }
+
+    //response, 팀을 함께 조회한 경우
+    public MemberDto(Member member, Team team) {
+        this(member);
+        teamName = team != null ? team.getName() : null;
+    }
 }
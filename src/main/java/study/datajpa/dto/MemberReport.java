@@ -0,0 +1,5 @@
+package study.datajpa.dto;
+
+//리포트용 회원 행 (JDBC 로 바로 매핑)
+public record MemberReport(Long id, String username, int age, String teamName) {
+}
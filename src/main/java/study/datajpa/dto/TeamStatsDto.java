@@ -0,0 +1,20 @@
+package study.datajpa.dto;
+
+import lombok.Data;
+import study.datajpa.entity.TeamStats;
+
+@Data
+public class TeamStatsDto {
+
+    private Long teamId;
+    private long memberCount;
+    private double averageAge;
+    private long[] ageHistogram = new long[TeamStats.BUCKETS]; //index * 10 살
+
+    public TeamStatsDto(TeamStats stats) {
+        teamId = stats.getTeamId();
+        memberCount = stats.getMemberCount();
+        averageAge = stats.getAverageAge();
+        stats.getAgeHistogram().forEach((bucket, count) -> ageHistogram[bucket] = count);
+    }
+}
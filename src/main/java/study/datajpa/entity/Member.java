@@ -1,10 +1,15 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
+import study.datajpa.bloom.MemberUsernameListener;
+import study.datajpa.bloom.TransactionUsernames;
 
 import javax.persistence.*;
+import java.util.List;
 
 @Entity
+@EntityListeners(MemberUsernameListener.class)
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
@@ -20,7 +25,7 @@ public class Member extends BaseEntity {
     @Column(name = "member_id")
     private Long id;
 
-    @ManyToOne(fetch = FetchType.LAZY)
+    @ManyToOne(fetch = FetchType.LAZY) //NO_PROXY 는 batch fetch 를 타지 않고 한건씩 로딩한다. -> 프록시 유지
     @JoinColumn(name = "team_id")
     private Team team;
 
@@ -45,9 +50,20 @@ public class Member extends BaseEntity {
         }
     }
 
-    //연관관계 편의 메소드
+    //flush 전에는 PreUpdate 가 없으므로 같은 트랜잭션의 username 조회가 필터에 막히지 않게 기록
+    public void setUsername(String username) {
+        this.username = username;
+        TransactionUsernames.add(username);
+    }
+
+    //연관관계 편의 메소드 (생성자에서만 호출 -> 새 회원은 목록에 없다.)
+    //바이트코드 향상(association management) 은 this.team 대입 시점에 목록 끝에 추가한다. -> 마지막 원소만 확인 (contains 는 O(n))
+    //초기화 안된 컬렉션은 확인하지 않고 add (로딩 없이 대기 중인 추가로 남는다.)
     private void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        List<Member> members = team.getMembers();
+        if (!Hibernate.isInitialized(members) || members.isEmpty() || members.get(members.size() - 1) != this) {
+            members.add(this);
+        }
     }
 }
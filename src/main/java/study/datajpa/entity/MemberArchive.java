@@ -0,0 +1,41 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/*
+오래 변경되지 않은 회원 (member 에서 옮겨온 행, id 그대로)
+SQL 로만 옮기고 지우므로 엔티티로는 조회만 한다. -> study.datajpa.archive
+ */
+@Entity
+@Immutable
+@Table(name = "member_archive", indexes = @Index(name = "idx_member_archive_team", columnList = "team_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"id", "username", "age"})
+public class MemberArchive {
+
+    @Id
+    @Column(name = "member_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "team_id")
+    private Team team;
+
+    private String username;
+    private int age;
+
+    private LocalDateTime createdDate;
+    private LocalDateTime lastModifiedDate;
+    private String createdBy;
+    private String lastModifiedBy;
+
+    private LocalDateTime archivedDate;
+}
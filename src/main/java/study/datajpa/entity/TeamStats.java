@@ -0,0 +1,44 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.*;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+팀별 통계 읽기 모델 (회원 수, 나이 합, 나이 분포)
+Member 변경 이벤트로 증분 갱신되므로 직접 수정하지 않는다. -> study.datajpa.stats
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString(of = {"teamId", "memberCount", "ageSum"})
+public class TeamStats {
+
+    public static final int BUCKETS = 10; //0~9, 10~19, ... 90 이상
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+
+    @ElementCollection
+    @CollectionTable(name = "team_stats_histogram", joinColumns = @JoinColumn(name = "team_id"))
+    @MapKeyColumn(name = "bucket")
+    @Column(name = "member_count")
+    private Map<Integer, Long> ageHistogram = new HashMap<>();
+
+    public double getAverageAge() {
+        return memberCount == 0 ? 0.0 : (double) ageSum / memberCount;
+    }
+
+    public static int bucket(int age) {
+        return Math.min(Math.max(age, 0) / 10, BUCKETS - 1);
+    }
+}
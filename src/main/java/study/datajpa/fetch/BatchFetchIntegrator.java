@@ -0,0 +1,47 @@
+package study.datajpa.fetch;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Collection;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.Map;
+
+/*
+SessionFactory 가 persister 를 만들기 전에 엔티티, 컬렉션 매핑의 batch size 를 바꾼다.
+(batch size 는 persister 생성 시점에 고정되므로 실행 중에는 바꿀 수 없다.)
+ */
+@RequiredArgsConstructor
+public class BatchFetchIntegrator implements Integrator {
+
+    private final Map<String, Integer> sizes;
+    private final BatchFetchStats stats;
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        int defaultSize = sessionFactory.getSessionFactoryOptions().getDefaultBatchFetchSize(); //지정하지 않은 매핑 (-1)
+        for (PersistentClass entity : metadata.getEntityBindings()) {
+            String name = BatchFetchStats.entityName(entity.getEntityName());
+            Integer size = sizes.get(name);
+            if (size != null) {
+                entity.setBatchSize(size);
+            }
+            stats.configured(name, entity.getBatchSize() > 0 ? entity.getBatchSize() : defaultSize);
+        }
+        for (Collection collection : metadata.getCollectionBindings()) {
+            String name = BatchFetchStats.collectionName(collection.getRole());
+            Integer size = sizes.get(name);
+            if (size != null) {
+                collection.setBatchSize(size);
+            }
+            stats.configured(name, collection.getBatchSize() > 0 ? collection.getBatchSize() : defaultSize);
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
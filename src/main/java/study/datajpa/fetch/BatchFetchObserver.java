@@ -0,0 +1,82 @@
+package study.datajpa.fetch;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.EntityMode;
+import org.hibernate.HibernateException;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.BatchFetchQueue;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Objects;
+
+/*
+지연 로딩 초기화 직전에 BatchFetchQueue 에 대기 중인 키 수를 센다. (실제 로딩은 기본 리스너가 한다.)
+ */
+@Component
+@RequiredArgsConstructor
+public class BatchFetchObserver implements LoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory emf;
+    private final BatchFetchStats stats;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.prependListeners(EventType.LOAD, this);
+        registry.prependListeners(EventType.INIT_COLLECTION, this);
+    }
+
+    //프록시 초기화 (IMMEDIATE_LOAD), 바이트코드 향상 to-one 필드 접근 (INTERNAL_LOAD_EAGER)
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType != LoadEventListener.IMMEDIATE_LOAD && loadType != LoadEventListener.INTERNAL_LOAD_EAGER) {
+            return;
+        }
+
+        EventSource session = event.getSession();
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(event.getEntityClassName());
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        if (!persister.isBatchLoadable() || persistenceContext.getEntity(new EntityKey(event.getEntityId(), persister)) != null) {
+            return;
+        }
+
+        BatchFetchQueue queue = persistenceContext.getBatchFetchQueue();
+        Serializable[] pending = queue.getEntityBatch(persister, event.getEntityId(), BatchFetchStats.LEARN_CAP, EntityMode.POJO);
+        stats.record(BatchFetchStats.entityName(persister.getEntityName()), count(pending));
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        PersistentCollection collection = event.getCollection();
+        if (collection.wasInitialized()) {
+            return;
+        }
+
+        PersistenceContext persistenceContext = event.getSession().getPersistenceContextInternal();
+        CollectionEntry entry = persistenceContext.getCollectionEntry(collection);
+        if (entry == null || entry.getLoadedPersister() == null || !entry.getLoadedPersister().isBatchLoadable()) {
+            return;
+        }
+
+        Serializable[] pending = persistenceContext.getBatchFetchQueue()
+                .getCollectionBatch(entry.getLoadedPersister(), entry.getLoadedKey(), BatchFetchStats.LEARN_CAP);
+        stats.record(BatchFetchStats.collectionName(entry.getLoadedPersister().getRole()), count(pending));
+    }
+
+    private static int count(Serializable[] keys) {
+        return (int) Math.max(1, Arrays.stream(keys).filter(Objects::nonNull).count());
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.fetch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter @Setter
+@ConfigurationProperties("batch-fetch")
+public class BatchFetchProperties {
+
+    public enum Mode {
+        STATIC,  //sizes 만 사용
+        ADAPTIVE //실행 중 대기 프록시 수를 학습해서 learned-file 에 저장, 다음 시작 시 적용
+    }
+
+    private Mode mode = Mode.STATIC;
+    private Map<String, Integer> sizes = new HashMap<>(); //엔티티(Team) 또는 컬렉션(Team.members) -> batch size
+    private Path learnedFile;
+    private int maxSize = 1000;
+    private double percentile = 0.95; //이 비율의 초기화가 한번에 끝나는 크기를 고른다.
+}
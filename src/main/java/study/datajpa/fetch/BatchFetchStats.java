@@ -0,0 +1,150 @@
+package study.datajpa.fetch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+연관관계(엔티티 프록시, 컬렉션) 별 지연 로딩 초기화 기록
+- pending : 초기화 시점에 같은 종류의 대기 중인 프록시(컬렉션) 수 (자기 자신 포함)
+- 한번에 가져오는 수 = min(pending, batch size)
+- 추천 크기 : pending 분포의 percentile 을 덮는 가장 작은 2의 거듭제곱 (max-size 이하)
+ */
+@Slf4j
+@Component
+public class BatchFetchStats {
+
+    static final int LEARN_CAP = 1024; //이 이상은 같은 칸에 기록
+
+    private final BatchFetchProperties properties;
+    private final Map<String, Association> associations = new ConcurrentHashMap<>();
+
+    public BatchFetchStats(BatchFetchProperties properties) {
+        this.properties = properties;
+    }
+
+    //설정값 + (adaptive) 학습값
+    public Map<String, Integer> sizes() {
+        Map<String, Integer> sizes = new HashMap<>(properties.getSizes());
+        if (properties.getMode() == BatchFetchProperties.Mode.ADAPTIVE && properties.getLearnedFile() != null
+                && Files.exists(properties.getLearnedFile())) {
+            try (Reader reader = Files.newBufferedReader(properties.getLearnedFile())) {
+                Properties learned = new Properties();
+                learned.load(reader);
+                learned.forEach((k, v) -> sizes.put((String) k, Integer.parseInt((String) v)));
+                log.info("batch fetch sizes learned: {}", learned);
+            } catch (IOException e) {
+                log.warn("failed to read learned batch fetch sizes: {}", properties.getLearnedFile(), e);
+            }
+        }
+        return sizes;
+    }
+
+    void configured(String name, int batchSize) {
+        associations.computeIfAbsent(name, Association::new).batchSize = batchSize;
+    }
+
+    void record(String name, int pending) {
+        Association association = associations.computeIfAbsent(name, Association::new);
+        int fetched = Math.min(pending, Math.max(1, association.batchSize));
+        association.initializations.increment();
+        association.keysFetched.add(fetched);
+        if (fetched > 1) {
+            association.batchLoads.increment();
+        }
+        association.histogram.incrementAndGet(Math.min(pending, LEARN_CAP));
+    }
+
+    public List<Snapshot> snapshots() {
+        return associations.values().stream()
+                .filter(a -> a.initializations.sum() > 0)
+                .map(this::snapshot)
+                .sorted(Comparator.comparing(Snapshot::association))
+                .toList();
+    }
+
+    //adaptive : 주기적으로, 종료 시점에 추천 크기를 저장
+    @Scheduled(fixedDelayString = "${batch-fetch.save-interval:600000}", initialDelayString = "${batch-fetch.save-interval:600000}")
+    @PreDestroy
+    public void saveLearned() {
+        if (properties.getMode() != BatchFetchProperties.Mode.ADAPTIVE || properties.getLearnedFile() == null) {
+            return;
+        }
+
+        Properties learned = new Properties();
+        snapshots().forEach(s -> learned.setProperty(s.association(), String.valueOf(s.recommendedSize())));
+        if (learned.isEmpty()) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(properties.getLearnedFile())) {
+            learned.store(writer, "learned batch fetch sizes");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Snapshot snapshot(Association a) {
+        long total = a.initializations.sum();
+        long target = (long) Math.ceil(total * properties.getPercentile());
+        long seen = 0;
+        int pendingAtPercentile = 1;
+        int maxPending = 0;
+        for (int i = 1; i <= LEARN_CAP; i++) {
+            long count = a.histogram.get(i);
+            if (count == 0) {
+                continue;
+            }
+            maxPending = i;
+            if (seen < target) {
+                seen += count;
+                pendingAtPercentile = i;
+            }
+        }
+
+        int recommended = Math.min(properties.getMaxSize(), Integer.highestOneBit(Math.max(1, pendingAtPercentile - 1)) << 1);
+        if (pendingAtPercentile == 1) {
+            recommended = 1;
+        }
+        return new Snapshot(a.name, a.batchSize, total, a.batchLoads.sum(), a.keysFetched.sum(),
+                (double) a.keysFetched.sum() / Math.max(1, total), pendingAtPercentile, maxPending, recommended);
+    }
+
+    static String entityName(String entityName) {
+        return entityName.substring(entityName.lastIndexOf('.') + 1);
+    }
+
+    //study.datajpa.entity.Team.members -> Team.members
+    static String collectionName(String role) {
+        int property = role.lastIndexOf('.');
+        return entityName(role.substring(0, property)) + role.substring(property);
+    }
+
+    private static class Association {
+
+        private final String name;
+        private volatile int batchSize = 1;
+        private final LongAdder initializations = new LongAdder();
+        private final LongAdder batchLoads = new LongAdder();
+        private final LongAdder keysFetched = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(LEARN_CAP + 1);
+
+        Association(String name) {
+            this.name = name;
+        }
+    }
+
+    public record Snapshot(String association, int batchSize, long initializations, long batchLoads, long keysFetched,
+                           double avgKeysPerLoad, int pendingPercentile, int maxPending, int recommendedSize) {
+    }
+}
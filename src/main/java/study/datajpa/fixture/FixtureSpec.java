@@ -0,0 +1,25 @@
+package study.datajpa.fixture;
+
+/*
+대량 데이터 생성 조건
+- teamSkew : 팀 크기 분포 (Zipf 지수, 0 이면 균등)
+- collisionRate : 흔한 이름(username 중복) 비율
+- seed : 같은 seed -> 같은 데이터
+ */
+public record FixtureSpec(int teams, long members, double teamSkew, double collisionRate,
+                          int meanAge, int ageStdDev, long seed, Mode mode, int producers) {
+
+    public enum Mode {
+        CSV,        //생산자가 CSV 파일을 쓰고 H2 CSVREAD 로 적재 (DB 와 같은 호스트)
+        JDBC_BATCH  //생산자 -> 큐 -> 여러 커넥션에서 JDBC batch insert
+    }
+
+    public static FixtureSpec of(int teams, long members) {
+        return new FixtureSpec(teams, members, 1.1, 0.05, 35, 12, 42L, Mode.CSV,
+                Math.max(1, Runtime.getRuntime().availableProcessors()));
+    }
+
+    public FixtureSpec withMode(Mode mode) {
+        return new FixtureSpec(teams, members, teamSkew, collisionRate, meanAge, ageStdDev, seed, mode, producers);
+    }
+}
@@ -0,0 +1,302 @@
+package study.datajpa.fixture;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import study.datajpa.bloom.UsernameBloomFilterLoader;
+import study.datajpa.shard.Shards;
+import study.datajpa.stats.TeamStatsRebuilder;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+
+/*
+성능 테스트용 대량 데이터 생성기
+엔티티, 영속성 컨텍스트를 거치지 않고 여러 생산자 스레드가 row 를 만들고 JDBC 로 바로 적재한다.
+- id 는 hibernate_sequence 에서 한번에 구간을 할당받는다. (increment 를 잠시 늘려 next value 한번으로)
+- 같은 seed 면 같은 데이터가 만들어진다. (chunk 마다 고정 seed)
+적재 후 team_stats, username 필터를 다시 만든다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberDataGenerator {
+
+    private static final int CSV_CHUNK = 500_000;
+    private static final int BATCH = 5_000;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String INSERT_MEMBER =
+            "insert into member (member_id, username, age, team_id, created_date, last_modified_date) values (?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TEAM =
+            "insert into team (team_id, name, created_date, last_modified_date) values (?, ?, ?, ?)";
+
+    private final DataSource dataSource;
+    private final TeamStatsRebuilder teamStatsRebuilder;
+    private final UsernameBloomFilterLoader usernameBloomFilterLoader;
+    private final Shards shards;
+
+    public Result generate(FixtureSpec spec) {
+        if (shards.count() > 1) {
+            throw new IllegalStateException("fixture generator writes ids directly and does not support sharding");
+        }
+
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        long firstId = reserveIds(spec.teams() + spec.members());
+        long firstMemberId = firstId + spec.teams();
+
+        ExecutorService producers = Executors.newFixedThreadPool(spec.producers());
+        try {
+            if (spec.mode() == FixtureSpec.Mode.CSV) {
+                loadCsv(spec, producers, now, firstId, firstMemberId);
+            } else {
+                loadBatch(spec, producers, now, firstId, firstMemberId);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("fixture load failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("fixture load interrupted", e);
+        } finally {
+            producers.shutdownNow();
+        }
+
+        teamStatsRebuilder.rebuildAll();
+        usernameBloomFilterLoader.rebuild();
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        log.info("fixture loaded: teams={}, members={}, mode={}, {}ms", spec.teams(), spec.members(), spec.mode(), millis);
+        return new Result(spec.teams(), spec.members(), firstId, millis);
+    }
+
+    //CSV : 생산자가 chunk 파일을 쓰는 동안, 먼저 끝난 파일부터 순서대로 CSVREAD
+    private void loadCsv(FixtureSpec spec, ExecutorService producers, LocalDateTime now,
+                         long firstTeamId, long firstMemberId) throws SQLException, InterruptedException {
+        Path dir = createTempDir();
+        try {
+            Future<Path> teams = producers.submit(() -> writeTeams(dir, spec, now, firstTeamId));
+            List<Future<Path>> chunks = new ArrayList<>();
+            for (long from = 0; from < spec.members(); from += CSV_CHUNK) {
+                long chunkFrom = from;
+                long chunkTo = Math.min(from + CSV_CHUNK, spec.members());
+                chunks.add(producers.submit(() -> writeMembers(dir, spec, now, firstTeamId, firstMemberId, chunkFrom, chunkTo)));
+            }
+
+            try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement()) {
+                statement.executeUpdate("insert into team (team_id, name, created_date, last_modified_date) " +
+                        "select * from csvread('" + path(teams) + "', null, 'charset=UTF-8')");
+                for (Future<Path> chunk : chunks) {
+                    statement.executeUpdate("insert into member (member_id, username, age, team_id, created_date, last_modified_date) " +
+                            "select * from csvread('" + path(chunk) + "', null, 'charset=UTF-8')");
+                    Files.deleteIfExists(get(chunk));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } finally {
+            deleteQuietly(dir);
+        }
+    }
+
+    private Path writeTeams(Path dir, FixtureSpec spec, LocalDateTime now, long firstTeamId) throws IOException {
+        Path file = dir.resolve("team.csv");
+        String timestamp = now.format(TIMESTAMP);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("TEAM_ID,NAME,CREATED_DATE,LAST_MODIFIED_DATE\n");
+            for (int i = 0; i < spec.teams(); i++) {
+                writer.write((firstTeamId + i) + ",team" + (firstTeamId + i) + "," + timestamp + "," + timestamp + "\n");
+            }
+        }
+        return file;
+    }
+
+    private Path writeMembers(Path dir, FixtureSpec spec, LocalDateTime now, long firstTeamId, long firstMemberId,
+                              long from, long to) throws IOException {
+        Path file = dir.resolve("member-" + from + ".csv");
+        MemberRowSampler sampler = new MemberRowSampler(spec);
+        SplittableRandom random = new SplittableRandom(spec.seed() + from);
+        String created = now.format(TIMESTAMP);
+
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("MEMBER_ID,USERNAME,AGE,TEAM_ID,CREATED_DATE,LAST_MODIFIED_DATE\n");
+            for (long i = from; i < to; i++) {
+                long memberId = firstMemberId + i;
+                writer.write(memberId + "," + sampler.username(random, memberId) + "," + sampler.age(random) + ","
+                        + (firstTeamId + sampler.team(random)) + "," + created + ","
+                        + lastModified(now, random).format(TIMESTAMP) + "\n");
+            }
+        }
+        return file;
+    }
+
+    //JDBC batch : 생산자 -> 큐 -> 여러 커넥션에서 batch insert
+    private void loadBatch(FixtureSpec spec, ExecutorService producers, LocalDateTime now,
+                           long firstTeamId, long firstMemberId) throws SQLException, InterruptedException {
+        Timestamp created = Timestamp.valueOf(now);
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(INSERT_TEAM)) {
+            for (int i = 0; i < spec.teams(); i++) {
+                ps.setLong(1, firstTeamId + i);
+                ps.setString(2, "team" + (firstTeamId + i));
+                ps.setTimestamp(3, created);
+                ps.setTimestamp(4, created);
+                ps.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        int writers = Math.max(1, Math.min(4, spec.producers()));
+        BlockingQueue<List<Object[]>> queue = new ArrayBlockingQueue<>(writers * 4);
+        List<Object[]> poison = List.of();
+        ExecutorService writerPool = Executors.newFixedThreadPool(writers);
+        List<Future<?>> writerTasks = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            writerTasks.add(writerPool.submit(() -> writeBatches(queue, poison)));
+        }
+
+        try {
+            List<Future<?>> producerTasks = new ArrayList<>();
+            for (long from = 0; from < spec.members(); from += BATCH) {
+                long batchFrom = from;
+                long batchTo = Math.min(from + BATCH, spec.members());
+                producerTasks.add(producers.submit(() -> {
+                    //writer 가 실패해서 큐가 비워지지 않으면 무한 대기하지 않도록
+                    if (!queue.offer(memberRows(spec, now, firstTeamId, firstMemberId, batchFrom, batchTo), 1, TimeUnit.MINUTES)) {
+                        throw new IllegalStateException("fixture writers stalled");
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : producerTasks) {
+                await(task);
+            }
+            for (int w = 0; w < writers; w++) {
+                queue.put(poison);
+            }
+            for (Future<?> task : writerTasks) {
+                await(task);
+            }
+        } finally {
+            writerPool.shutdownNow();
+        }
+    }
+
+    private Void writeBatches(BlockingQueue<List<Object[]>> queue, List<Object[]> poison) throws Exception {
+        try (Connection conn = dataSource.getConnection(); PreparedStatement ps = conn.prepareStatement(INSERT_MEMBER)) {
+            conn.setAutoCommit(false);
+            while (true) {
+                List<Object[]> rows = queue.take();
+                if (rows == poison) {
+                    return null;
+                }
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        ps.setObject(i + 1, row[i]);
+                    }
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            }
+        }
+    }
+
+    private List<Object[]> memberRows(FixtureSpec spec, LocalDateTime now, long firstTeamId, long firstMemberId, long from, long to) {
+        MemberRowSampler sampler = new MemberRowSampler(spec);
+        SplittableRandom random = new SplittableRandom(spec.seed() + from);
+        Timestamp created = Timestamp.valueOf(now);
+        List<Object[]> rows = new ArrayList<>((int) (to - from));
+        for (long i = from; i < to; i++) {
+            long memberId = firstMemberId + i;
+            rows.add(new Object[]{memberId, sampler.username(random, memberId), sampler.age(random),
+                    firstTeamId + sampler.team(random), created, Timestamp.valueOf(lastModified(now, random))});
+        }
+        return rows;
+    }
+
+    //최근 5년 안에서 수정일을 고르게 분포
+    private static LocalDateTime lastModified(LocalDateTime now, SplittableRandom random) {
+        return now.minusMinutes(random.nextLong(5L * 365 * 24 * 60));
+    }
+
+    /*
+    increment 를 count 로 바꾼 뒤 next value 한번으로 구간을 받는다. -> 그 사이 다른 insert 가 끼어들어도 구간이 겹치지 않는다.
+    (끼어든 쪽은 count 만큼 건너뛸 뿐)
+    alter, next value, 복구 사이에 다른 생성기가 increment 를 바꾸면 안 되므로 lock 으로 묶는다. (생성기는 한 노드에서만 실행)
+     */
+    private long reserveIds(long count) {
+        synchronized (MemberDataGenerator.class) {
+            try (Connection conn = dataSource.getConnection(); Statement statement = conn.createStatement()) {
+                long increment;
+                try (ResultSet rs = statement.executeQuery(
+                        "select increment from information_schema.sequences where sequence_name = 'HIBERNATE_SEQUENCE'")) {
+                    rs.next();
+                    increment = rs.getLong(1);
+                }
+                statement.execute("alter sequence hibernate_sequence increment by " + count);
+                try (ResultSet rs = statement.executeQuery("select next value for hibernate_sequence")) {
+                    rs.next();
+                    return rs.getLong(1);
+                } finally {
+                    statement.execute("alter sequence hibernate_sequence increment by " + increment);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("id reservation failed", e);
+            }
+        }
+    }
+
+    private static String path(Future<Path> future) throws InterruptedException {
+        return get(future).toAbsolutePath().toString().replace("'", "''");
+    }
+
+    private static Path get(Future<Path> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("fixture producer failed", e.getCause());
+        }
+    }
+
+    private static void await(Future<?> future) throws InterruptedException {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("fixture load failed", e.getCause());
+        }
+    }
+
+    private static Path createTempDir() {
+        try {
+            return Files.createTempDirectory("data-jpa-fixture");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path dir) {
+        try (var files = Files.list(dir)) {
+            files.forEach(file -> file.toFile().delete());
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.warn("fixture temp dir not deleted: {}", dir);
+        }
+    }
+
+    public record Result(int teams, long members, long firstId, long millis) {
+    }
+}
@@ -0,0 +1,50 @@
+package study.datajpa.fixture;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/*
+회원 한 row 의 값을 분포에 맞게 뽑는다.
+- team : Zipf (소수의 큰 팀, 다수의 작은 팀)
+- age : 정규분포, 0 ~ 99
+- username : collisionRate 만큼 흔한 이름 1000 개 중 하나 (중복), 나머지는 고유한 이름
+ */
+class MemberRowSampler {
+
+    private static final int COMMON_NAMES = 1000;
+
+    private final FixtureSpec spec;
+    private final double[] cumulative; //팀 선택 누적 확률
+
+    MemberRowSampler(FixtureSpec spec) {
+        this.spec = spec;
+        this.cumulative = new double[spec.teams()];
+        double sum = 0;
+        for (int rank = 0; rank < spec.teams(); rank++) {
+            sum += 1.0 / Math.pow(rank + 1, spec.teamSkew());
+            cumulative[rank] = sum;
+        }
+        for (int i = 0; i < cumulative.length; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    //0 ~ teams - 1
+    int team(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+
+    int age(SplittableRandom random) {
+        //Box-Muller
+        double gaussian = Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+        return (int) Math.min(99, Math.max(0, Math.round(spec.meanAge() + gaussian * spec.ageStdDev())));
+    }
+
+    String username(SplittableRandom random, long memberId) {
+        if (random.nextDouble() < spec.collisionRate()) {
+            return "user" + random.nextInt(COMMON_NAMES);
+        }
+        return "member" + memberId;
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.data.jpa.repository.Query;
+import study.datajpa.entity.Member;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+@Modifying 벌크 쿼리는 엔티티 이벤트가 없으므로, 쿼리 대상 엔티티 전체를 무효화한다.
+(트랜잭션 안이면 커밋 후에 보낸다.)
+ */
+@Slf4j
+@Aspect
+public class InvalidationBulkAspect {
+
+    private static final Pattern TARGET = Pattern.compile("^\\s*(?:update|delete)\\s+(?:from\\s+)?(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    private final InvalidationBus bus;
+
+    public InvalidationBulkAspect(InvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    @AfterReturning("@annotation(org.springframework.data.jpa.repository.Modifying)")
+    public void modifying(JoinPoint joinPoint) {
+        Query query = ((MethodSignature) joinPoint.getSignature()).getMethod().getAnnotation(Query.class);
+        Matcher matcher = query == null || query.nativeQuery() ? null : TARGET.matcher(query.value());
+        Class<?> type = matcher != null && matcher.find() ? bus.entityType(matcher.group(1)) : null;
+        if (type == null) {
+            log.warn("cannot find bulk update target, other nodes may read stale entities: {}", joinPoint.getSignature());
+            return;
+        }
+        bus.invalidateAll(type);
+    }
+
+    @AfterReturning("execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))")
+    public void bulkAgePlus() {
+        bus.invalidateAll(Member.class);
+    }
+}
@@ -0,0 +1,244 @@
+package study.datajpa.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.EntityType;
+import java.io.Serializable;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+변경된 엔티티 (타입, id) 를 트랜잭션 단위로 모아 커밋 후 한번에 보낸다. (롤백되면 버린다.)
+- 보내는 노드도 같은 메시지를 바로 적용한다. (JDBC 벌크 수정은 자기 노드의 캐시도 모른다.)
+- 받는 노드 : 2차 캐시 엔티티, 쿼리 캐시 영역, InvalidationListener 빈들을 무효화한다.
+- 새로 생긴 키(username 등) 도 함께 보낸다. (노드 로컬 bloom filter 는 추가를 알아야 한다.)
+ */
+@Slf4j
+public class InvalidationBus {
+
+    private final InvalidationProperties properties;
+    private final InvalidationTransport transport;
+    private final EntityManagerFactory emf;
+    private final ObjectProvider<InvalidationListener> listeners;
+
+    private Map<String, Class<?>> entityTypes = Map.of();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder invalidatedIds = new LongAdder();
+    private final LongAdder invalidatedTypes = new LongAdder();
+
+    public InvalidationBus(InvalidationProperties properties, InvalidationTransport transport,
+                           EntityManagerFactory emf, ObjectProvider<InvalidationListener> listeners) {
+        this.properties = properties;
+        this.transport = transport;
+        this.emf = emf;
+        this.listeners = listeners;
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        Map<String, Class<?>> types = new HashMap<>();
+        for (EntityType<?> type : emf.getMetamodel().getEntities()) {
+            types.put(type.getName(), type.getJavaType());
+        }
+        entityTypes = types;
+        transport.subscribe(this::receive);
+    }
+
+    public void invalidate(Class<?> type, Collection<? extends Serializable> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Batch batch = batch();
+        batch.ids.computeIfAbsent(entityName(type), k -> new LinkedHashSet<>()).addAll(ids);
+        publishIfNoTransaction(batch);
+    }
+
+    //insert, update 로 새로 생긴 키 (ex: username) -> 모든 노드의 InvalidationListener.keysAdded
+    public void addKeys(Class<?> type, Collection<String> keys) {
+        List<String> values = keys.stream().filter(Objects::nonNull).toList();
+        if (values.isEmpty()) {
+            return;
+        }
+        Batch batch = batch();
+        batch.keys.computeIfAbsent(entityName(type), k -> new LinkedHashSet<>()).addAll(values);
+        publishIfNoTransaction(batch);
+    }
+
+    //벌크 연산처럼 어떤 id 가 바뀌었는지 모를 때
+    public void invalidateAll(Class<?> type) {
+        Batch batch = batch();
+        batch.all.add(entityName(type));
+        publishIfNoTransaction(batch);
+    }
+
+    //트랜잭션이 있으면 커밋 후에 보낸다. (Hibernate post-commit 이벤트는 커밋 중에 호출되므로 여기서 등록해도 afterCompletion 이 호출된다.)
+    //batch 는 트랜잭션 리소스로 바인딩 -> REQUIRES_NEW 로 중단된 바깥 트랜잭션과 섞이지 않는다.
+    private Batch batch() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Batch();
+        }
+
+        Batch bound = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (bound != null) {
+            return bound;
+        }
+
+        Batch batch = new Batch();
+        batch.transactional = true;
+        TransactionSynchronizationManager.bindResource(this, batch);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void suspend() {
+                TransactionSynchronizationManager.unbindResource(InvalidationBus.this);
+            }
+
+            @Override
+            public void resume() {
+                TransactionSynchronizationManager.bindResource(InvalidationBus.this, batch);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(InvalidationBus.this);
+                if (status == STATUS_COMMITTED) {
+                    publish(batch);
+                }
+            }
+        });
+        return batch;
+    }
+
+    private void publishIfNoTransaction(Batch batch) {
+        if (!batch.transactional) {
+            publish(batch);
+        }
+    }
+
+    private void publish(Batch batch) {
+        for (InvalidationMessage message : split(batch)) {
+            apply(message);
+            try {
+                transport.publish(message);
+                published.increment();
+            } catch (RuntimeException e) {
+                log.warn("cache invalidation publish failed: {}", message, e); //커밋은 이미 끝났다.
+            }
+        }
+    }
+
+    //타입 별 id 가 많으면 타입 전체로 바꾸고, 메시지 하나의 id(키) 수를 제한한다.
+    private List<InvalidationMessage> split(Batch batch) {
+        Set<String> all = new LinkedHashSet<>(batch.all);
+        batch.ids.forEach((type, ids) -> {
+            if (ids.size() > properties.getMaxIdsPerType()) {
+                all.add(type);
+            }
+        });
+
+        List<InvalidationMessage> messages = new ArrayList<>();
+        Map<String, Set<Serializable>> currentIds = new LinkedHashMap<>();
+        Map<String, Set<String>> currentKeys = new LinkedHashMap<>();
+        int size = 0;
+        for (Map.Entry<String, Set<Serializable>> entry : batch.ids.entrySet()) {
+            if (all.contains(entry.getKey())) {
+                continue;
+            }
+            for (Serializable id : entry.getValue()) {
+                if (size == properties.getMaxIdsPerMessage()) {
+                    messages.add(new InvalidationMessage(properties.getNodeId(), currentIds, Set.of(), currentKeys));
+                    currentIds = new LinkedHashMap<>();
+                    currentKeys = new LinkedHashMap<>();
+                    size = 0;
+                }
+                currentIds.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).add(id);
+                size++;
+            }
+        }
+        for (Map.Entry<String, Set<String>> entry : batch.keys.entrySet()) { //키는 타입 전체 무효화로 대신할 수 없다.
+            for (String key : entry.getValue()) {
+                if (size == properties.getMaxIdsPerMessage()) {
+                    messages.add(new InvalidationMessage(properties.getNodeId(), currentIds, Set.of(), currentKeys));
+                    currentIds = new LinkedHashMap<>();
+                    currentKeys = new LinkedHashMap<>();
+                    size = 0;
+                }
+                currentKeys.computeIfAbsent(entry.getKey(), k -> new LinkedHashSet<>()).add(key);
+                size++;
+            }
+        }
+        if (size > 0 || !all.isEmpty()) {
+            messages.add(new InvalidationMessage(properties.getNodeId(), currentIds, all, currentKeys));
+        }
+        return messages;
+    }
+
+    private void receive(InvalidationMessage message) {
+        if (properties.getNodeId().equals(message.origin())) {
+            return;
+        }
+        received.increment();
+        apply(message);
+    }
+
+    private void apply(InvalidationMessage message) {
+        javax.persistence.Cache cache = emf.getCache();
+        message.ids().forEach((name, ids) -> {
+            Class<?> type = entityTypes.get(name);
+            if (type == null) {
+                return;
+            }
+            ids.forEach(id -> cache.evict(type, id));
+            listeners.orderedStream().forEach(listener -> listener.invalidate(type, ids));
+            invalidatedIds.add(ids.size());
+        });
+        for (String name : message.all()) {
+            Class<?> type = entityTypes.get(name);
+            if (type == null) {
+                continue;
+            }
+            cache.evict(type);
+            listeners.orderedStream().forEach(listener -> listener.invalidateAll(type));
+            invalidatedTypes.increment();
+        }
+        message.keys().forEach((name, keys) -> {
+            Class<?> type = entityTypes.get(name);
+            if (type != null) {
+                listeners.orderedStream().forEach(listener -> listener.keysAdded(type, keys));
+            }
+        });
+        emf.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    //JPQL 엔티티 이름 -> 클래스 (없으면 null)
+    public Class<?> entityType(String entityName) {
+        return entityTypes.get(entityName);
+    }
+
+    private String entityName(Class<?> type) {
+        return emf.getMetamodel().entity(type).getName();
+    }
+
+    public Stats stats() {
+        return new Stats(properties.getNodeId(), properties.getTransport(), published.sum(), received.sum(),
+                invalidatedIds.sum(), invalidatedTypes.sum());
+    }
+
+    public record Stats(String nodeId, InvalidationProperties.Transport transport, long published, long received,
+                        long invalidatedIds, long invalidatedTypes) {
+    }
+
+    private static class Batch {
+        final Map<String, Set<Serializable>> ids = new LinkedHashMap<>();
+        final Set<String> all = new LinkedHashSet<>();
+        final Map<String, Set<String>> keys = new LinkedHashMap<>();
+        boolean transactional;
+    }
+}
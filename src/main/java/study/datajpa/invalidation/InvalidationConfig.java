@@ -0,0 +1,54 @@
+package study.datajpa.invalidation;
+
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@EnableConfigurationProperties(InvalidationProperties.class)
+@ConditionalOnProperty(prefix = "invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class InvalidationConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "invalidation", name = "transport", havingValue = "loopback", matchIfMissing = true)
+    public LoopbackTransport loopbackTransport() {
+        return new LoopbackTransport();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "invalidation", name = "transport", havingValue = "table")
+    public TablePollingTransport tablePollingTransport(JdbcTemplate jdbcTemplate, InvalidationProperties properties) {
+        return new TablePollingTransport(jdbcTemplate, properties.getRetention());
+    }
+
+    @Bean
+    public InvalidationBus invalidationBus(InvalidationProperties properties, InvalidationTransport transport,
+                                           EntityManagerFactory emf, ObjectProvider<InvalidationListener> listeners) {
+        return new InvalidationBus(properties, transport, emf, listeners);
+    }
+
+    @Bean
+    public InvalidationEventListener invalidationEventListener(InvalidationBus bus, EntityManagerFactory emf) {
+        InvalidationEventListener listener = new InvalidationEventListener(bus);
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        return listener;
+    }
+
+    @Bean
+    public InvalidationBulkAspect invalidationBulkAspect(InvalidationBus bus) {
+        return new InvalidationBulkAspect(bus);
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.invalidation;
+
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.io.Serializable;
+import java.util.List;
+
+/*
+커밋된 insert, update, delete 만 버스에 넘긴다. (롤백되면 *CommitFailed 로 호출된다.)
+insert 도 보낸다 : 다른 노드의 쿼리 캐시 결과가 달라진다.
+ */
+public class InvalidationEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final InvalidationBus bus;
+
+    public InvalidationEventListener(InvalidationBus bus) {
+        this.bus = bus;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        invalidate(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getPersister(), event.getId());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    private void invalidate(EntityPersister persister, Serializable id) {
+        bus.invalidate(persister.getMappedClass(), List.of(id));
+    }
+}
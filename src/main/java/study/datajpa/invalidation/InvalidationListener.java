@@ -0,0 +1,18 @@
+package study.datajpa.invalidation;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/*
+프로세스 내 캐시가 구현해서 빈으로 등록하면 모든 노드의 변경이 전달된다. (자기 노드의 변경 포함)
+ */
+public interface InvalidationListener {
+
+    void invalidate(Class<?> type, Set<Serializable> ids);
+
+    void invalidateAll(Class<?> type);
+
+    //새로 생긴 키 (insert, update 된 username 등), 무효화가 아니라 추가가 필요한 캐시용
+    default void keysAdded(Class<?> type, Set<String> keys) {
+    }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.invalidation;
+
+import java.io.Serializable;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/*
+트랜잭션 하나(또는 그 일부)의 무효화 목록
+ids : 엔티티 이름 -> id, all : 전체를 무효화할 엔티티 이름 (벌크 연산)
+keys : 엔티티 이름 -> 새로 생긴 키 (ex: Member username, 다른 노드의 bloom filter 에 추가)
+인코딩 : origin|Member=1,2,3;Team=7|Member|Member=user1,user2 (키는 URL 인코딩)
+ */
+public record InvalidationMessage(String origin, Map<String, Set<Serializable>> ids, Set<String> all,
+                                  Map<String, Set<String>> keys) {
+
+    public InvalidationMessage(String origin, Map<String, Set<Serializable>> ids, Set<String> all) {
+        this(origin, ids, all, Map.of());
+    }
+
+    public int size() {
+        return ids.values().stream().mapToInt(Set::size).sum() + all.size()
+                + keys.values().stream().mapToInt(Set::size).sum();
+    }
+
+    public String encode() {
+        StringJoiner types = new StringJoiner(";");
+        ids.forEach((type, values) -> {
+            StringJoiner joiner = new StringJoiner(",", type + "=", "");
+            values.forEach(id -> joiner.add(id.toString()));
+            types.add(joiner.toString());
+        });
+        StringJoiner keyTypes = new StringJoiner(";");
+        keys.forEach((type, values) -> {
+            StringJoiner joiner = new StringJoiner(",", type + "=", "");
+            values.forEach(key -> joiner.add(URLEncoder.encode(key, StandardCharsets.UTF_8)));
+            keyTypes.add(joiner.toString());
+        });
+        return origin + "|" + types + "|" + String.join(";", all) + "|" + keyTypes;
+    }
+
+    public static InvalidationMessage decode(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        Map<String, Set<Serializable>> ids = new LinkedHashMap<>();
+        for (String type : parts[1].split(";")) {
+            if (type.isEmpty()) {
+                continue;
+            }
+            int eq = type.indexOf('=');
+            Set<Serializable> values = new LinkedHashSet<>();
+            for (String id : type.substring(eq + 1).split(",")) {
+                values.add(parseId(id));
+            }
+            ids.put(type.substring(0, eq), values);
+        }
+        Set<String> all = new LinkedHashSet<>();
+        for (String type : parts[2].split(";")) {
+            if (!type.isEmpty()) {
+                all.add(type);
+            }
+        }
+        Map<String, Set<String>> keys = new LinkedHashMap<>();
+        if (parts.length > 3) { //키가 없던 이전 형식
+            for (String type : parts[3].split(";")) {
+                if (type.isEmpty()) {
+                    continue;
+                }
+                int eq = type.indexOf('=');
+                Set<String> values = new LinkedHashSet<>();
+                for (String key : type.substring(eq + 1).split(",")) {
+                    values.add(URLDecoder.decode(key, StandardCharsets.UTF_8));
+                }
+                keys.put(type.substring(0, eq), values);
+            }
+        }
+        return new InvalidationMessage(parts[0], ids, all, keys);
+    }
+
+    //모든 엔티티 id 가 Long 이다. (숫자가 아니면 문자열 그대로)
+    private static Serializable parseId(String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException e) {
+            return id;
+        }
+    }
+}
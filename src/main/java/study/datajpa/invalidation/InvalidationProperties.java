@@ -0,0 +1,27 @@
+package study.datajpa.invalidation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Getter @Setter
+@ConfigurationProperties("invalidation")
+public class InvalidationProperties {
+
+    public enum Transport {
+        LOOPBACK, //같은 JVM 안의 노드끼리 (테스트)
+        TABLE,    //공유 DB 의 cache_invalidation 테이블을 폴링
+        CUSTOM    //직접 등록한 InvalidationTransport 빈 (메시지 브로커 등)
+    }
+
+    private boolean enabled = true;
+    private String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private Transport transport = Transport.LOOPBACK;
+    private int maxIdsPerType = 1000; //넘으면 해당 타입 전체 무효화로 보낸다.
+    private int maxIdsPerMessage = 500;
+    private Duration pollInterval = Duration.ofSeconds(1);
+    private Duration retention = Duration.ofMinutes(10); //이보다 오래된 메시지 행은 지운다.
+}
@@ -0,0 +1,13 @@
+package study.datajpa.invalidation;
+
+import java.util.function.Consumer;
+
+/*
+노드 사이에 무효화 메시지를 전달한다. (자기 자신이 보낸 메시지도 전달될 수 있다.)
+ */
+public interface InvalidationTransport {
+
+    void publish(InvalidationMessage message);
+
+    void subscribe(Consumer<InvalidationMessage> receiver);
+}
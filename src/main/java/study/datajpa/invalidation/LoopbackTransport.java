@@ -0,0 +1,31 @@
+package study.datajpa.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+같은 JVM 안의 모든 애플리케이션 컨텍스트(노드)에 바로 전달한다.
+ */
+public class LoopbackTransport implements InvalidationTransport {
+
+    private static final List<Consumer<InvalidationMessage>> RECEIVERS = new CopyOnWriteArrayList<>();
+
+    private final List<Consumer<InvalidationMessage>> own = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        RECEIVERS.forEach(receiver -> receiver.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> receiver) {
+        own.add(receiver);
+        RECEIVERS.add(receiver);
+    }
+
+    //컨텍스트 종료 시
+    public void close() {
+        RECEIVERS.removeAll(own);
+    }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.invalidation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+공유 DB 의 cache_invalidation 테이블에 메시지를 쌓고, 각 노드가 마지막으로 읽은 id 이후를 폴링한다.
+시작 시점 이전의 메시지는 읽지 않는다. (지연 : poll-interval)
+다른 노드의 insert 가 id 순서와 다르게 커밋될 수 있어 마지막 id 이전 LOOKBACK 개를 다시 읽고, 이미 전달한 id 는 건너뛴다.
+ */
+@Slf4j
+public class TablePollingTransport implements InvalidationTransport {
+
+    private static final int LOOKBACK = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration retention;
+    private final List<Consumer<InvalidationMessage>> receivers = new CopyOnWriteArrayList<>();
+    private final long startId;
+    private volatile long lastSeen;
+    private final Set<Long> delivered = Collections.newSetFromMap(new LinkedHashMap<Long, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+            return size() > LOOKBACK * 10;
+        }
+    });
+
+    public TablePollingTransport(JdbcTemplate jdbcTemplate, Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retention = retention;
+        jdbcTemplate.execute("create table if not exists cache_invalidation (" +
+                "id bigint auto_increment primary key, payload clob not null, created_at timestamp not null)");
+        Long max = jdbcTemplate.queryForObject("select max(id) from cache_invalidation", Long.class);
+        this.startId = max == null ? 0 : max;
+        this.lastSeen = startId;
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        jdbcTemplate.update("insert into cache_invalidation (payload, created_at) values (?, current_timestamp)", message.encode());
+    }
+
+    @Override
+    public void subscribe(Consumer<InvalidationMessage> receiver) {
+        receivers.add(receiver);
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.poll-interval:PT1S}")
+    public synchronized void poll() {
+        jdbcTemplate.query("select id, payload from cache_invalidation where id > ? order by id", rs -> {
+            long id = rs.getLong(1);
+            if (!delivered.add(id)) {
+                return;
+            }
+            InvalidationMessage message = InvalidationMessage.decode(rs.getString(2));
+            for (Consumer<InvalidationMessage> receiver : receivers) {
+                try {
+                    receiver.accept(message);
+                } catch (RuntimeException e) {
+                    log.warn("cache invalidation failed: {}", message, e);
+                }
+            }
+            lastSeen = Math.max(lastSeen, id);
+        }, Math.max(startId, lastSeen - LOOKBACK));
+    }
+
+    @Scheduled(fixedDelayString = "${invalidation.retention:PT10M}")
+    public void purge() {
+        jdbcTemplate.update("delete from cache_invalidation where created_at < ?", Timestamp.from(Instant.now().minus(retention)));
+    }
+}
@@ -0,0 +1,109 @@
+package study.datajpa.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+캐시된 PreparedStatement 의 대여 한 번 (close 하면 더 이상 사용할 수 없고 물리 statement 는 캐시로 돌아간다.)
+ */
+final class CachedStatement implements InvocationHandler {
+
+    private final StatementCachingConnection owner;
+    private final StatementCachingConnection.Key key;
+    private final PreparedStatement target;
+
+    private boolean closed = false;
+    private boolean batched = false;
+    private final Set<String> changedSettings = new HashSet<>();
+    private final List<ResultSet> results = new ArrayList<>();
+
+    private CachedStatement(StatementCachingConnection owner, StatementCachingConnection.Key key, PreparedStatement target) {
+        this.owner = owner;
+        this.key = key;
+        this.target = target;
+    }
+
+    static PreparedStatement wrap(StatementCachingConnection owner, StatementCachingConnection.Key key, PreparedStatement target) {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new CachedStatement(owner, key, target));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    owner.release(key, target, reset());
+                }
+                return null;
+            case "isClosed":
+                return closed || target.isClosed();
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "CachedStatement[" + key.sql() + "]";
+        }
+
+        if (closed) {
+            throw new SQLException("PreparedStatement is closed");
+        }
+        switch (name) {
+            case "getConnection":
+                return owner.proxy();
+            case "addBatch":
+                batched = true;
+                break;
+            case "setQueryTimeout", "setMaxRows", "setLargeMaxRows", "setFetchSize", "setFetchDirection",
+                    "setMaxFieldSize", "setEscapeProcessing", "setPoolable", "setCursorName":
+                changedSettings.add(name);
+                break;
+        }
+
+        Object result = StatementCachingConnection.invokeTarget(target, method, args);
+        if (result instanceof ResultSet resultSet) {
+            results.add(resultSet);
+        }
+        return result;
+    }
+
+    //다음 대여자가 새로 prepare 한 것과 같은 상태를 보도록 되돌린다.
+    private boolean reset() {
+        try {
+            for (ResultSet resultSet : results) {
+                resultSet.close();
+            }
+            target.clearParameters();
+            if (batched) {
+                target.clearBatch();
+            }
+            target.clearWarnings();
+            for (String setting : changedSettings) {
+                switch (setting) {
+                    case "setQueryTimeout" -> target.setQueryTimeout(0);
+                    case "setMaxRows", "setLargeMaxRows" -> target.setMaxRows(0);
+                    case "setFetchSize" -> target.setFetchSize(0);
+                    case "setFetchDirection" -> target.setFetchDirection(ResultSet.FETCH_FORWARD);
+                    case "setMaxFieldSize" -> target.setMaxFieldSize(0);
+                    case "setEscapeProcessing" -> target.setEscapeProcessing(true);
+                    case "setPoolable" -> target.setPoolable(true);
+                    case "setCursorName" -> target.setCursorName(null);
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+}
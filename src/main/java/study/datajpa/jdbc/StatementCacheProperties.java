@@ -0,0 +1,13 @@
+package study.datajpa.jdbc;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties("statement-cache")
+public class StatementCacheProperties {
+
+    private boolean enabled = false;
+    private int maxSize = 100; //물리 커넥션 당 PreparedStatement 수 (LRU)
+}
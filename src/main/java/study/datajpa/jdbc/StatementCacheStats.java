@@ -0,0 +1,31 @@
+package study.datajpa.jdbc;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class StatementCacheStats {
+
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder inUse = new LongAdder(); //같은 SQL 이 이미 열려 있어 캐시하지 않고 새로 만든 경우
+    final LongAdder evictions = new LongAdder();
+    final LongAdder cached = new LongAdder();
+
+    public Stats stats() {
+        long h = hits.sum();
+        long total = h + misses.sum() + inUse.sum();
+        return new Stats(h, misses.sum(), inUse.sum(), evictions.sum(), cached.sum(), total == 0 ? 0.0 : (double) h / total);
+    }
+
+    public void reset() {
+        hits.reset();
+        misses.reset();
+        inUse.reset();
+        evictions.reset();
+    }
+
+    public record Stats(long hits, long misses, long inUse, long evictions, long cached, double hitRate) {
+    }
+}
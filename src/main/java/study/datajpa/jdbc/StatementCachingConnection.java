@@ -0,0 +1,132 @@
+package study.datajpa.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/*
+물리 커넥션 하나의 PreparedStatement LRU 캐시 (SQL + prepareStatement 옵션이 키)
+- 대여 : 캐시에서 꺼내 사용 중으로 표시, 같은 키가 이미 사용 중이면 캐시하지 않는 statement 를 새로 만든다.
+- close : 파라미터, 배치, 변경한 설정을 되돌린 뒤 캐시에 반납 (실패하면 실제로 닫는다.)
+- 제거 : maxSize 를 넘으면 가장 오래 쓰지 않은 statement 를 닫는다. 커넥션을 닫으면 모두 닫는다.
+ */
+final class StatementCachingConnection implements InvocationHandler {
+
+    private final Connection target;
+    private final int maxSize;
+    private final StatementCacheStats stats;
+    private Connection proxy;
+
+    private final Set<Key> inUse = new HashSet<>();
+    private final LinkedHashMap<Key, PreparedStatement> idle = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, PreparedStatement> eldest) {
+            if (size() <= maxSize) {
+                return false;
+            }
+            discard(eldest.getValue());
+            stats.evictions.increment();
+            return true;
+        }
+    };
+    private boolean closed = false;
+
+    private StatementCachingConnection(Connection target, int maxSize, StatementCacheStats stats) {
+        this.target = target;
+        this.maxSize = maxSize;
+        this.stats = stats;
+    }
+
+    static Connection wrap(Connection target, int maxSize, StatementCacheStats stats) {
+        StatementCachingConnection handler = new StatementCachingConnection(target, maxSize, stats);
+        handler.proxy = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+        return handler.proxy;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "prepareStatement":
+                return prepare(method, args);
+            case "close":
+                closeCached();
+                break;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "StatementCachingConnection[" + target + "]";
+        }
+        return invokeTarget(target, method, args);
+    }
+
+    private PreparedStatement prepare(Method method, Object[] args) throws Throwable {
+        Key key = new Key((String) args[0], Arrays.deepToString(Arrays.copyOfRange(args, 1, args.length)));
+        synchronized (this) {
+            PreparedStatement cached = idle.remove(key);
+            if (cached != null) {
+                stats.hits.increment();
+                inUse.add(key);
+                return CachedStatement.wrap(this, key, cached);
+            }
+            if (closed || inUse.contains(key)) {
+                stats.inUse.increment();
+                return (PreparedStatement) invokeTarget(target, method, args);
+            }
+        }
+
+        PreparedStatement created = (PreparedStatement) invokeTarget(target, method, args);
+        stats.misses.increment();
+        stats.cached.increment();
+        synchronized (this) {
+            inUse.add(key);
+        }
+        return CachedStatement.wrap(this, key, created);
+    }
+
+    //CachedStatement.close
+    synchronized void release(Key key, PreparedStatement statement, boolean reusable) {
+        inUse.remove(key);
+        if (!reusable || closed) {
+            discard(statement);
+            return;
+        }
+        idle.put(key, statement);
+    }
+
+    //풀이 물리 커넥션을 닫을 때 (사용 중인 statement 는 반납될 때 닫힌다.)
+    private synchronized void closeCached() {
+        closed = true;
+        idle.values().forEach(this::discard);
+        idle.clear();
+    }
+
+    private void discard(PreparedStatement statement) {
+        stats.cached.decrement();
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    Connection proxy() {
+        return proxy;
+    }
+
+    static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    record Key(String sql, String options) {
+    }
+}
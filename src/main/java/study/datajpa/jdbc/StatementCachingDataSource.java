@@ -0,0 +1,33 @@
+package study.datajpa.jdbc;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/*
+물리 커넥션을 StatementCachingConnection 으로 감싼다. 풀(Hikari)의 dataSource 로 넣어서
+캐시가 커넥션 대여/반납과 상관없이 물리 커넥션이 닫힐 때까지 유지되게 한다.
+ */
+public class StatementCachingDataSource extends DelegatingDataSource {
+
+    private final int maxSize;
+    private final StatementCacheStats stats;
+
+    public StatementCachingDataSource(DataSource targetDataSource, int maxSize, StatementCacheStats stats) {
+        super(targetDataSource);
+        this.maxSize = maxSize;
+        this.stats = stats;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return StatementCachingConnection.wrap(obtainTargetDataSource().getConnection(), maxSize, stats);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return StatementCachingConnection.wrap(obtainTargetDataSource().getConnection(username, password), maxSize, stats);
+    }
+}
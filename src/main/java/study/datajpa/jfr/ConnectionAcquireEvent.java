@@ -0,0 +1,27 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.ConnectionAcquire")
+@Label("Connection Acquire")
+@Category({"Data JPA", "Connection Pool"})
+@Description("Hikari reports the wait after the connection is acquired, so the wait is a field rather than the event duration")
+@StackTrace(false)
+public class ConnectionAcquireEvent extends Event {
+
+    @Label("Pool")
+    String pool;
+
+    @Label("Wait")
+    @Timespan(Timespan.NANOSECONDS)
+    long waitNanos;
+
+    public static void emit(String pool, long waitNanos) {
+        ConnectionAcquireEvent event = new ConnectionAcquireEvent();
+        if (event.shouldCommit()) {
+            event.pool = pool;
+            event.waitNanos = waitNanos;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.Flush")
+@Label("EntityManager Flush")
+@Category({"Data JPA", "Session"})
+@StackTrace(false)
+public class FlushEvent extends Event {
+
+    @Label("Entities")
+    int entityCount;
+
+    @Label("Collections")
+    int collectionCount;
+
+    //flushStart 에서 begin(), flushEnd 에서 호출
+    public void finish(int entityCount, int collectionCount) {
+        end();
+        if (shouldCommit()) {
+            this.entityCount = entityCount;
+            this.collectionCount = collectionCount;
+            commit();
+        }
+    }
+}
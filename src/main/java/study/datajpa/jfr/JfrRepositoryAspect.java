@@ -0,0 +1,71 @@
+package study.datajpa.jfr;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.datajpa.aop.RepositoryPointcuts;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.BaseStream;
+
+/*
+리포지토리 호출 JFR 이벤트, 기록 중이 아니면 이벤트 객체만 만들고 바로 실행한다.
+ */
+@Aspect
+@Component
+@Order(RepositoryPointcuts.JFR_ORDER)
+public class JfrRepositoryAspect {
+
+    @Around("study.datajpa.aop.RepositoryPointcuts.repositoryCall()")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return joinPoint.proceed();
+        }
+
+        event.begin();
+        Object result = null;
+        boolean failed = true;
+        try {
+            result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.repository = RepositoryPointcuts.repositoryName(joinPoint.getTarget().getClass());
+                event.method = joinPoint.getSignature().getName();
+                event.resultCount = failed ? 0 : resultCount(result);
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+
+    private static long resultCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.LazyInitialization")
+@Label("Lazy Initialization")
+@Category({"Data JPA", "Session"})
+@Description("Proxy / lazy to-one (entity name) or collection (Entity.role) initialization")
+public class LazyInitializationEvent extends Event {
+
+    @Label("Association")
+    String association;
+
+    @Label("Key")
+    String key;
+}
@@ -0,0 +1,130 @@
+package study.datajpa.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.event.service.spi.EventListenerGroup;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/*
+지연 로딩 (Member.team 프록시 / to-one, Team.members 컬렉션) 초기화 시간을 JFR 이벤트로 남긴다.
+기존 리스너들을 감싸는 리스너 하나로 교체해서 try/finally 로 시작과 끝을 맞춘다.
+(로딩 중 예외가 나도 남는 상태가 없고, 중첩된 지연 로딩은 호출 스택이 짝을 맞춘다.)
+ */
+@Component
+@RequiredArgsConstructor
+public class LazyInitializationRecorder {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        wrap(registry.getEventListenerGroup(EventType.LOAD), RecordingLoad::new);
+        wrap(registry.getEventListenerGroup(EventType.INIT_COLLECTION), RecordingCollection::new);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static <T> void wrap(EventListenerGroup<T> group, Function<List<T>, T> wrapper) {
+        List<T> delegates = new ArrayList<>();
+        group.listeners().forEach(delegates::add);
+        group.clear();
+        group.appendListener(wrapper.apply(delegates));
+    }
+
+    private static LazyInitializationEvent begin(String association, Object key) {
+        LazyInitializationEvent jfr = new LazyInitializationEvent();
+        jfr.association = association;
+        jfr.key = String.valueOf(key);
+        jfr.begin();
+        return jfr;
+    }
+
+    private static void end(LazyInitializationEvent jfr) {
+        if (jfr != null) {
+            jfr.commit();
+        }
+    }
+
+    private static boolean enabled() {
+        return new LazyInitializationEvent().isEnabled();
+    }
+
+    @RequiredArgsConstructor
+    private static class RecordingLoad implements LoadEventListener {
+
+        private final List<LoadEventListener> delegates;
+
+        @Override
+        public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+            LazyInitializationEvent jfr = start(event, loadType);
+            try {
+                for (LoadEventListener delegate : delegates) {
+                    delegate.onLoad(event, loadType);
+                }
+            } finally {
+                end(jfr);
+            }
+        }
+
+        //프록시 초기화 (IMMEDIATE_LOAD), 바이트코드 향상 to-one 필드 접근 (INTERNAL_LOAD_EAGER)
+        private static LazyInitializationEvent start(LoadEvent event, LoadType loadType) {
+            if ((loadType != LoadEventListener.IMMEDIATE_LOAD && loadType != LoadEventListener.INTERNAL_LOAD_EAGER) || !enabled()) {
+                return null;
+            }
+
+            EventSource session = event.getSession();
+            EntityPersister persister = session.getFactory().getMetamodel().entityPersister(event.getEntityClassName());
+            PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+            if (persistenceContext.getEntity(new EntityKey(event.getEntityId(), persister)) != null) {
+                return null;
+            }
+            return begin(persister.getEntityName().substring(persister.getEntityName().lastIndexOf('.') + 1), event.getEntityId());
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class RecordingCollection implements InitializeCollectionEventListener {
+
+        private final List<InitializeCollectionEventListener> delegates;
+
+        @Override
+        public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+            LazyInitializationEvent jfr = start(event);
+            try {
+                for (InitializeCollectionEventListener delegate : delegates) {
+                    delegate.onInitializeCollection(event);
+                }
+            } finally {
+                end(jfr);
+            }
+        }
+
+        private static LazyInitializationEvent start(InitializeCollectionEvent event) {
+            if (event.getCollection().wasInitialized() || !enabled()) {
+                return null;
+            }
+
+            CollectionEntry entry = event.getSession().getPersistenceContextInternal().getCollectionEntry(event.getCollection());
+            if (entry == null || entry.getLoadedPersister() == null) {
+                return null;
+            }
+            String role = entry.getLoadedPersister().getRole();
+            return begin(role.substring(role.lastIndexOf('.', role.lastIndexOf('.') - 1) + 1), entry.getLoadedKey());
+        }
+    }
+}
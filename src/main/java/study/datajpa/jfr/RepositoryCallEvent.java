@@ -0,0 +1,24 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.*;
+
+@Name("study.datajpa.RepositoryCall")
+@Label("Repository Call")
+@Category({"Data JPA", "Repository"})
+@Description("Spring Data / @Repository method invocation")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    String repository;
+
+    @Label("Method")
+    String method;
+
+    @Label("Result Count")
+    @Description("Collection/page size, 1/0 for single results, -1 if unknown (Stream)")
+    long resultCount;
+
+    @Label("Failed")
+    boolean failed;
+}
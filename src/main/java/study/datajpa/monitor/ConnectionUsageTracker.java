@@ -0,0 +1,57 @@
+package study.datajpa.monitor;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.springframework.stereotype.Component;
+import study.datajpa.jfr.ConnectionAcquireEvent;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+커넥션 풀에서 커넥션을 빌린 뒤 반납하기까지의 시간(hold time)을 기록한다.
+OSIV 가 켜져 있으면 요청이 끝날 때까지 (뷰 렌더링, JSON 직렬화 포함) 커넥션을 잡고 있다.
+ */
+@Component
+public class ConnectionUsageTracker implements MetricsTrackerFactory {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+    private final LongAccumulator maxMillis = new LongAccumulator(Math::max, 0);
+    private final LongAdder acquireNanos = new LongAdder();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        return new IMetricsTracker() {
+            @Override
+            public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+                acquireNanos.add(elapsedAcquiredNanos);
+                ConnectionAcquireEvent.emit(poolName, elapsedAcquiredNanos);
+            }
+
+            @Override
+            public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+                count.increment();
+                totalMillis.add(elapsedBorrowedMillis);
+                maxMillis.accumulate(elapsedBorrowedMillis);
+            }
+        };
+    }
+
+    public Stats stats() {
+        long c = count.sum();
+        return new Stats(c, c == 0 ? 0.0 : (double) totalMillis.sum() / c, maxMillis.get(),
+                c == 0 ? 0.0 : acquireNanos.sum() / 1_000_000.0 / c);
+    }
+
+    public void reset() {
+        count.reset();
+        totalMillis.reset();
+        maxMillis.reset();
+        acquireNanos.reset();
+    }
+
+    public record Stats(long borrows, double avgHoldMillis, long maxHoldMillis, double avgAcquireMillis) {
+    }
+}
@@ -0,0 +1,131 @@
+package study.datajpa.monitor;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/*
+세션 단위 Hibernate 지표를 HTTP 요청, 트랜잭션 경계 별로 모은다.
+- 현재 스레드에 열린 범위(요청, 트랜잭션)가 스택으로 쌓이고, 이벤트는 열린 범위 모두에 더해진다.
+- 범위가 끝나면 이름(엔드포인트, 트랜잭션 메소드) 별 합계에 더한다.
+ */
+@Component
+public class HibernateMetrics {
+
+    private static final ThreadLocal<Deque<Counters>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Map<String, Totals> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, Totals> transactions = new ConcurrentHashMap<>();
+
+    //Hibernate 가 만드는 객체(통계, 세션 리스너)에서 호출
+    static void onEachScope(Consumer<Counters> action) {
+        Deque<Counters> scopes = SCOPES.get();
+        if (!scopes.isEmpty()) {
+            scopes.forEach(action);
+        }
+    }
+
+    public Counters beginScope() {
+        Counters counters = new Counters();
+        SCOPES.get().push(counters);
+        return counters;
+    }
+
+    public void endEndpoint(String endpoint, Counters counters) {
+        end(counters);
+        endpoints.computeIfAbsent(endpoint, k -> new Totals()).add(counters);
+    }
+
+    public void endTransaction(String method, Counters counters) {
+        end(counters);
+        transactions.computeIfAbsent(method, k -> new Totals()).add(counters);
+    }
+
+    private static void end(Counters counters) {
+        Deque<Counters> scopes = SCOPES.get();
+        scopes.remove(counters);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    public Report report() {
+        return new Report(snapshot(endpoints), snapshot(transactions));
+    }
+
+    private static Map<String, Summary> snapshot(Map<String, Totals> totals) {
+        Map<String, Summary> result = new TreeMap<>();
+        totals.forEach((k, v) -> result.put(k, v.summary()));
+        return result;
+    }
+
+    //한 범위 동안의 값, 한 스레드에서만 변경
+    public static class Counters {
+
+        long entitiesLoaded;
+        long entitiesFetched; //지연 로딩 등 추가 조회로 가져온 엔티티
+        long collectionsLoaded;
+        long collectionsFetched;
+        long flushes;
+        long flushNanos;
+        long statements;
+        long statementNanos;
+        long batches; //JDBC batch 실행 (statements 와 별도로 센다.)
+        long batchNanos;
+        long queries;
+        long secondLevelCacheHits;
+        long secondLevelCacheMisses;
+        long queryCacheHits;
+        long queryCacheMisses;
+        long queryPlanCacheHits;
+        long queryPlanCacheMisses;
+    }
+
+    private static class Totals {
+
+        private final LongAdder scopes = new LongAdder();
+        private final LongAdder[] values = new LongAdder[17];
+
+        Totals() {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = new LongAdder();
+            }
+        }
+
+        void add(Counters c) {
+            scopes.increment();
+            long[] v = {c.entitiesLoaded, c.entitiesFetched, c.collectionsLoaded, c.collectionsFetched, c.flushes, c.flushNanos,
+                    c.statements, c.statementNanos, c.queries, c.secondLevelCacheHits, c.secondLevelCacheMisses,
+                    c.queryCacheHits, c.queryCacheMisses, c.queryPlanCacheHits, c.queryPlanCacheMisses, c.batches, c.batchNanos};
+            for (int i = 0; i < v.length; i++) {
+                values[i].add(v[i]);
+            }
+        }
+
+        Summary summary() {
+            long n = scopes.sum();
+            long[] v = new long[values.length];
+            for (int i = 0; i < v.length; i++) {
+                v[i] = values[i].sum();
+            }
+            return new Summary(n, v[0], v[1], v[2], v[3], v[4], v[5] / 1_000_000.0, v[6], v[7] / 1_000_000.0,
+                    v[15], v[16] / 1_000_000.0, v[8], v[9], v[10], v[11], v[12], v[13], v[14], n == 0 ? 0.0 : (double) v[6] / n);
+        }
+    }
+
+    public record Summary(long count, long entitiesLoaded, long entitiesFetched, long collectionsLoaded, long collectionsFetched,
+                          long flushes, double flushMillis, long statements, double statementMillis,
+                          long batches, double batchMillis, long queries,
+                          long secondLevelCacheHits, long secondLevelCacheMisses, long queryCacheHits, long queryCacheMisses,
+                          long queryPlanCacheHits, long queryPlanCacheMisses, double statementsPerScope) {
+    }
+
+    public record Report(Map<String, Summary> endpoints, Map<String, Summary> transactions) {
+    }
+}
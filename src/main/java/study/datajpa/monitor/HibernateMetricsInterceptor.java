@@ -0,0 +1,38 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/*
+요청 단위 범위 : "GET /members/{id}" 처럼 매핑 패턴 별로 집계
+ */
+@RequiredArgsConstructor
+public class HibernateMetricsInterceptor implements HandlerInterceptor {
+
+    private static final String COUNTERS = HibernateMetricsInterceptor.class.getName() + ".counters";
+
+    private final HibernateMetrics metrics;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.REQUEST) {
+            request.setAttribute(COUNTERS, metrics.beginScope());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(COUNTERS) instanceof HibernateMetrics.Counters counters) {
+            request.removeAttribute(COUNTERS);
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String endpoint = request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+            metrics.endEndpoint(endpoint, counters);
+        }
+    }
+}
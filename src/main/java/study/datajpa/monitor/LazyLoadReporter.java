@@ -0,0 +1,46 @@
+package study.datajpa.monitor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+트랜잭션 밖에서 일어난 지연 로딩(또는 쿼리)을 요청 URI 별로 집계한다.
+같은 URI 는 처음 한번만 warn 로그를 남긴다.
+ */
+@Slf4j
+@Component
+public class LazyLoadReporter {
+
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+
+    public void report(String detail) {
+        String where = currentRequest();
+        LongAdder counter = counts.computeIfAbsent(where, k -> new LongAdder());
+        counter.increment();
+
+        if (counter.sum() == 1) {
+            log.warn("lazy load outside transaction: uri={}, detail={}", where, detail);
+        } else {
+            log.debug("lazy load outside transaction: uri={}, detail={}", where, detail);
+        }
+    }
+
+    public Map<String, Long> counts() {
+        Map<String, Long> result = new ConcurrentHashMap<>();
+        counts.forEach((k, v) -> result.put(k, v.sum()));
+        return result;
+    }
+
+    private static String currentRequest() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return attributes.getRequest().getMethod() + " " + attributes.getRequest().getRequestURI();
+        }
+        return "(no request)";
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+트랜잭션 없이 실행되는 SQL 을 찾는다. (OSIV 상태에서 컨트롤러, 뷰의 지연 로딩)
+리포지토리 메소드는 항상 트랜잭션 안에서 실행되므로, 여기 걸리는 SQL 은 대부분 지연 로딩이다.
+ */
+@Component
+@RequiredArgsConstructor
+public class NonTransactionalStatementInspector implements StatementInspector {
+
+    private final LazyLoadReporter reporter;
+
+    @Override
+    public String inspect(String sql) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            reporter.report(sql);
+        }
+        return sql;
+    }
+}
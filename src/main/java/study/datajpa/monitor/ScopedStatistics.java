@@ -0,0 +1,94 @@
+package study.datajpa.monitor;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.metamodel.model.domain.NavigableRole;
+import org.hibernate.stat.internal.StatisticsImpl;
+
+/*
+전역 통계는 그대로 두고, 같은 이벤트를 현재 스레드의 범위(요청, 트랜잭션)에도 기록한다.
+hibernate.stats.factory 로 등록, hibernate.generate_statistics 가 켜져 있어야 호출된다.
+ */
+public class ScopedStatistics extends StatisticsImpl {
+
+    public ScopedStatistics(SessionFactoryImplementor sessionFactory) {
+        super(sessionFactory);
+    }
+
+    @Override
+    public void loadEntity(String entityName) {
+        super.loadEntity(entityName);
+        HibernateMetrics.onEachScope(c -> c.entitiesLoaded++);
+    }
+
+    @Override
+    public void fetchEntity(String entityName) {
+        super.fetchEntity(entityName);
+        HibernateMetrics.onEachScope(c -> c.entitiesFetched++);
+    }
+
+    @Override
+    public void loadCollection(String role) {
+        super.loadCollection(role);
+        HibernateMetrics.onEachScope(c -> c.collectionsLoaded++);
+    }
+
+    @Override
+    public void fetchCollection(String role) {
+        super.fetchCollection(role);
+        HibernateMetrics.onEachScope(c -> c.collectionsFetched++);
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        HibernateMetrics.onEachScope(c -> c.queries++);
+    }
+
+    @Override
+    public void entityCacheHit(NavigableRole entityName, String regionName) {
+        super.entityCacheHit(entityName, regionName);
+        HibernateMetrics.onEachScope(c -> c.secondLevelCacheHits++);
+    }
+
+    @Override
+    public void entityCacheMiss(NavigableRole entityName, String regionName) {
+        super.entityCacheMiss(entityName, regionName);
+        HibernateMetrics.onEachScope(c -> c.secondLevelCacheMisses++);
+    }
+
+    @Override
+    public void collectionCacheHit(NavigableRole collectionRole, String regionName) {
+        super.collectionCacheHit(collectionRole, regionName);
+        HibernateMetrics.onEachScope(c -> c.secondLevelCacheHits++);
+    }
+
+    @Override
+    public void collectionCacheMiss(NavigableRole collectionRole, String regionName) {
+        super.collectionCacheMiss(collectionRole, regionName);
+        HibernateMetrics.onEachScope(c -> c.secondLevelCacheMisses++);
+    }
+
+    @Override
+    public void queryCacheHit(String hql, String regionName) {
+        super.queryCacheHit(hql, regionName);
+        HibernateMetrics.onEachScope(c -> c.queryCacheHits++);
+    }
+
+    @Override
+    public void queryCacheMiss(String hql, String regionName) {
+        super.queryCacheMiss(hql, regionName);
+        HibernateMetrics.onEachScope(c -> c.queryCacheMisses++);
+    }
+
+    @Override
+    public void queryPlanCacheHit(String hql) {
+        super.queryPlanCacheHit(hql);
+        HibernateMetrics.onEachScope(c -> c.queryPlanCacheHits++);
+    }
+
+    @Override
+    public void queryPlanCacheMiss(String hql) {
+        super.queryPlanCacheMiss(hql);
+        HibernateMetrics.onEachScope(c -> c.queryPlanCacheMisses++);
+    }
+}
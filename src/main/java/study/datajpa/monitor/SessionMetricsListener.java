@@ -0,0 +1,65 @@
+package study.datajpa.monitor;
+
+import org.hibernate.BaseSessionEventListener;
+import study.datajpa.jfr.FlushEvent;
+
+/*
+flush, JDBC 실행 시간 (세션마다 생성 : hibernate.session.events.auto)
+batch 실행은 statement 와 따로 센다. (batch 한번은 여러 행의 insert, update 이므로 단건 statement 와 섞지 않는다.)
+flush 는 JFR 이벤트(study.datajpa.Flush)로도 남긴다.
+ */
+public class SessionMetricsListener extends BaseSessionEventListener {
+
+    private long flushStart;
+    private FlushEvent flushEvent;
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+        flushEvent = new FlushEvent();
+        flushEvent.begin();
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        long nanos = System.nanoTime() - flushStart;
+        if (flushEvent != null) {
+            flushEvent.finish(numberOfEntities, numberOfCollections);
+            flushEvent = null;
+        }
+        HibernateMetrics.onEachScope(c -> {
+            c.flushes++;
+            c.flushNanos += nanos;
+        });
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        long nanos = System.nanoTime() - statementStart;
+        HibernateMetrics.onEachScope(c -> {
+            c.statements++;
+            c.statementNanos += nanos;
+        });
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        long nanos = System.nanoTime() - batchStart;
+        HibernateMetrics.onEachScope(c -> {
+            c.batches++;
+            c.batchNanos += nanos;
+        });
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.monitor;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+트랜잭션 단위 범위 : 실제로 트랜잭션을 시작하는 @Transactional 메소드만 (이미 참여 중인 호출은 바깥 범위에 포함)
+트랜잭션이 시작되기 전에 확인해야 하므로 트랜잭션 advice 보다 바깥에서 실행한다.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class TransactionMetricsAspect {
+
+    private final HibernateMetrics metrics;
+
+    @Around("@annotation(org.springframework.transaction.annotation.Transactional)" +
+            " || @within(org.springframework.transaction.annotation.Transactional)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        HibernateMetrics.Counters counters = metrics.beginScope();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            metrics.endTransaction(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName(), counters);
+        }
+    }
+}
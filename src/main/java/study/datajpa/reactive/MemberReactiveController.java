@@ -0,0 +1,45 @@
+package study.datajpa.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import study.datajpa.dto.MemberDto;
+
+/*
+Flux, Mono 를 반환하면 MVC 가 비동기로 처리한다.
+단, r2dbc-h2 는 내부적으로 블로킹 H2 호출을 구독한 스레드에서 실행하므로 DB 대기 중 스레드를 점유하지 않는 것은 아니다.
+NDJSON 은 row 단위로 스트리밍하며, 클라이언트가 느리면 다음 row 를 요청하지 않는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class MemberReactiveController {
+
+    private final MemberReactiveRepository memberReactiveRepository;
+
+    @GetMapping(value = "/reactive/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberDto> list(@RequestParam(value = "page", defaultValue = "0") int page,
+                                @RequestParam(value = "size", defaultValue = "20") int size) {
+        int limit = Math.min(Math.max(size, 1), 2000);
+        return memberReactiveRepository.findAll(Math.max(page, 0) * limit, limit);
+    }
+
+    @GetMapping("/reactive/members/{id}")
+    public Mono<MemberDto> findMember(@PathVariable("id") Long id) {
+        return memberReactiveRepository.findById(id);
+    }
+
+    @GetMapping(value = "/reactive/teams/{teamName}/members", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<MemberDto> teamMembers(@PathVariable("teamName") String teamName) {
+        return memberReactiveRepository.findByTeamName(teamName);
+    }
+
+    @GetMapping("/reactive/members/count")
+    public Mono<Long> count() {
+        return memberReactiveRepository.count();
+    }
+}
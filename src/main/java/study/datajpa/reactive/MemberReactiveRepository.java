@@ -0,0 +1,56 @@
+package study.datajpa.reactive;
+
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import study.datajpa.dto.MemberDto;
+
+/*
+논블로킹 조회 전용 리포지토리 (R2DBC)
+JPA 엔티티가 아닌 DTO 로 바로 조회한다. 영속성 컨텍스트, 지연 로딩 x
+ */
+@Repository
+@RequiredArgsConstructor
+public class MemberReactiveRepository {
+
+    private static final String SELECT_DTO =
+            "select m.member_id, m.username, t.name as team_name from member m left join team t on m.team_id = t.team_id";
+
+    private final DatabaseClient client;
+
+    //요청한 만큼만 row 를 가져온다. (backpressure)
+    public Flux<MemberDto> findAll(int offset, int limit) {
+        return client.sql(SELECT_DTO + " order by m.member_id limit :limit offset :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map((row, metadata) -> toDto(row))
+                .all();
+    }
+
+    public Mono<MemberDto> findById(Long id) {
+        return client.sql(SELECT_DTO + " where m.member_id = :id")
+                .bind("id", id)
+                .map((row, metadata) -> toDto(row))
+                .one();
+    }
+
+    public Flux<MemberDto> findByTeamName(String teamName) {
+        return client.sql(SELECT_DTO + " where t.name = :teamName order by m.member_id")
+                .bind("teamName", teamName)
+                .map((row, metadata) -> toDto(row))
+                .all();
+    }
+
+    public Mono<Long> count() {
+        return client.sql("select count(*) from member")
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static MemberDto toDto(Row row) {
+        return new MemberDto(row.get("member_id", Long.class), row.get("username", String.class), row.get("team_name", String.class));
+    }
+}
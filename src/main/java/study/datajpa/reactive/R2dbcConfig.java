@@ -0,0 +1,39 @@
+package study.datajpa.reactive;
+
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/*
+JDBC 와 같은 H2 데이터베이스를 R2DBC 로 연결한다. (spring.datasource.url 재사용)
+ConnectionFactory 빈이 있으면 DataSourceAutoConfiguration 이 빠지므로 (@ConditionalOnMissingBean) 직접 가져온다.
+H2ConnectionFactory 는 풀이 없어 조회마다 세션을 새로 연다.
+ */
+@Configuration
+@Import(DataSourceAutoConfiguration.class)
+public class R2dbcConfig {
+
+    private static final String JDBC_PREFIX = "jdbc:h2:";
+
+    @Bean
+    public ConnectionFactory connectionFactory(DataSourceProperties properties) {
+        String url = properties.determineUrl();
+        if (!url.startsWith(JDBC_PREFIX)) {
+            throw new IllegalStateException("H2 url required for R2DBC: " + url);
+        }
+
+        H2ConnectionConfiguration.Builder builder = H2ConnectionConfiguration.builder()
+                .url(url.substring(JDBC_PREFIX.length()))
+                .username(properties.determineUsername());
+        String password = properties.determinePassword();
+        if (password != null && !password.isEmpty()) {
+            builder.password(password);
+        }
+        return new H2ConnectionFactory(builder.build());
+    }
+}
@@ -0,0 +1,151 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.invalidation.InvalidationBus;
+import study.datajpa.shard.ShardKey;
+import study.datajpa.shard.ShardMergeable;
+import study.datajpa.stats.TeamStatsRebuilder;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+엔티티를 로딩하지 않고 팀/회원을 삭제한다. (em.remove 는 엔티티와 연관 컬렉션을 모두 로딩해야 한다.)
+- 삭제 대상은 id 만 조회하고, id 묶음 단위로 delete ... where id in (...)
+- FK 순서 : member, member_archive -> team_stats -> team
+- 영속성 컨텍스트에 남아 있는 삭제된 엔티티는 detach, 2차 캐시도 제거 (다른 노드는 커밋 후 InvalidationBus 로)
+- 삭제된 username 은 bloom filter 에 남지만 "있을 수도 있음" 이므로 정확성에는 문제 없다. (주기적 rebuild 때 정리)
+ */
+@Repository
+@RequiredArgsConstructor
+public class BulkDeleteRepository {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final EntityManager em;
+    private final TeamStatsRebuilder teamStatsRebuilder;
+    private final ObjectProvider<InvalidationBus> invalidationBus;
+
+    //팀과 소속 회원 삭제
+    @Transactional
+    public Result deleteTeamCascade(@ShardKey Long teamId) {
+        em.flush();
+
+        List<Long> memberIds = em.createQuery("select m.id from Member m where m.team.id = :teamId", Long.class)
+                .setParameter("teamId", teamId)
+                .getResultList();
+        long members = deleteMembersById(memberIds);
+        members += em.createQuery("delete from MemberArchive a where a.team.id = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate();
+
+        em.createNativeQuery("delete from team_stats_histogram where team_id = ?1").setParameter(1, teamId).executeUpdate();
+        em.createNativeQuery("delete from team_stats where team_id = ?1").setParameter(1, teamId).executeUpdate();
+        long teams = em.createQuery("delete from Team t where t.id = :teamId")
+                .setParameter("teamId", teamId)
+                .executeUpdate();
+        evict(Team.class, List.of(teamId));
+
+        return new Result(teams, members);
+    }
+
+    //조건에 맞는 회원 삭제, 영향 받은 팀의 team_stats 는 다시 계산
+    @Transactional
+    public Result deleteMembers(Specification<Member> spec) {
+        em.flush();
+
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Member> root = query.from(Member.class);
+        query.multiselect(root.get("id"), root.join("team", JoinType.LEFT).get("id"));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        List<Long> memberIds = new ArrayList<>();
+        Set<Long> teamIds = new LinkedHashSet<>();
+        for (Tuple row : em.createQuery(query).getResultList()) {
+            memberIds.add(row.get(0, Long.class));
+            Long teamId = row.get(1, Long.class);
+            if (teamId != null) {
+                teamIds.add(teamId);
+            }
+        }
+
+        long members = deleteMembersById(memberIds);
+        teamStatsRebuilder.rebuild(teamIds);
+        return new Result(0, members);
+    }
+
+    private long deleteMembersById(List<Long> memberIds) {
+        long deleted = 0;
+        for (int from = 0; from < memberIds.size(); from += BATCH_SIZE) {
+            List<Long> chunk = memberIds.subList(from, Math.min(from + BATCH_SIZE, memberIds.size()));
+            deleted += em.createQuery("delete from Member m where m.id in :ids")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+            evict(Member.class, chunk);
+        }
+        return deleted;
+    }
+
+    //로딩 없이 영속성 컨텍스트에 있는 엔티티만 찾아서 detach
+    private void evict(Class<?> type, List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(type);
+
+        for (Long id : ids) {
+            Object entity = persistenceContext.getEntity(new EntityKey(id, persister));
+            if (entity != null) {
+                if (entity instanceof Member member) {
+                    detachFromTeam(member);
+                }
+                em.detach(entity);
+            }
+            em.getEntityManagerFactory().getCache().evict(type, id);
+        }
+        invalidationBus.ifAvailable(bus -> bus.invalidate(type, ids));
+    }
+
+    //이미 로딩된 Team.members 에서도 제거
+    private static void detachFromTeam(Member member) {
+        if (!Hibernate.isPropertyInitialized(member, "team") || member.getTeam() == null) {
+            return;
+        }
+        List<Member> members = member.getTeam().getMembers();
+        if (Hibernate.isInitialized(members)) {
+            members.remove(member);
+        }
+    }
+
+    //sharding 시 shard 별 결과를 더한다.
+    public record Result(long teams, long members) implements ShardMergeable<Result> {
+
+        @Override
+        public Result merge(Result other) {
+            return new Result(teams + other.teams, members + other.members);
+        }
+    }
+}
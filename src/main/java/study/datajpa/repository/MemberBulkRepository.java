@@ -0,0 +1,22 @@
+package study.datajpa.repository;
+
+import study.datajpa.entity.Member;
+
+import java.util.function.Consumer;
+
+/*
+배치 작업용 (StatelessSession) : 영속성 컨텍스트, 변경 감지, 1차 캐시 없이 바로 SQL 실행
+- 조회한 회원은 준영속 상태와 같다. 지연 로딩 불가 -> team 이 필요하면 withTeam = true (fetch join)
+- withTeam = false 로 조회한 회원을 update 하면 team_id 는 변경하지 않는다.
+- 엔티티 리스너, Hibernate 이벤트가 실행되지 않으므로 auditing, team_stats, username 필터는 여기서 직접 맞춘다.
+ */
+public interface MemberBulkRepository {
+
+    long scanStateless(boolean withTeam, Consumer<Member> action);
+
+    int insertStateless(Iterable<Member> members);
+
+    int updateStateless(Iterable<Member> members);
+
+    int deleteStateless(Iterable<Long> memberIds);
+}
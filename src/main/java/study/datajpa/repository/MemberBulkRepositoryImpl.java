@@ -0,0 +1,175 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.auditing.AuditingHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.bloom.UsernameBloomFilter;
+import study.datajpa.entity.Member;
+import study.datajpa.invalidation.InvalidationBus;
+import study.datajpa.stats.TeamStatsRebuilder;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+public class MemberBulkRepositoryImpl implements MemberBulkRepository {
+
+    private final EntityManagerFactory emf;
+    private final DataSource dataSource;
+    private final ObjectProvider<AuditingHandler> auditingHandler;
+    private final TeamStatsRebuilder teamStatsRebuilder;
+    private final UsernameBloomFilter usernameBloomFilter;
+    private final ObjectProvider<InvalidationBus> invalidationBus; //StatelessSession 은 post-commit 이벤트가 없다.
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
+    private int batchSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public long scanStateless(boolean withTeam, Consumer<Member> action) {
+        String jpql = withTeam ? "select m from Member m left join fetch m.team" : "select m from Member m";
+        return withSession(session -> {
+            long count = 0;
+            try (ScrollableResults results = session.createQuery(jpql, Member.class)
+                    .setFetchSize(batchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (results.next()) {
+                    action.accept((Member) results.get(0)); //행 마다 새 인스턴스, 참조를 들고 있지 않으면 바로 GC 대상
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Override
+    @Transactional
+    public int insertStateless(Iterable<Member> members) {
+        Set<Long> teamIds = new HashSet<>();
+        List<Long> ids = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
+        int count = withSession(session -> {
+            int inserted = 0;
+            for (Member member : members) {
+                auditingHandler.ifAvailable(handler -> handler.markCreated(member));
+                ids.add((Long) session.insert(member));
+                if (member.getTeam() != null) {
+                    teamIds.add(member.getTeam().getId());
+                }
+                usernames.add(member.getUsername());
+                inserted++;
+            }
+            return inserted;
+        });
+
+        usernames.forEach(usernameBloomFilter::put);
+        invalidationBus.ifAvailable(bus -> {
+            bus.invalidate(Member.class, ids); //다른 노드의 쿼리 캐시
+            bus.addKeys(Member.class, usernames); //다른 노드의 필터
+        });
+        teamStatsRebuilder.rebuild(teamIds);
+        return count;
+    }
+
+    @Override
+    @Transactional
+    public int updateStateless(Iterable<Member> members) {
+        List<Long> ids = new ArrayList<>();
+        List<String> usernames = new ArrayList<>();
+        members.forEach(member -> ids.add(member.getId()));
+
+        return withSession(session -> {
+            Set<Long> teamIds = new HashSet<>(teamIdsOf(session, ids)); //변경 전 팀
+            int updated = 0;
+            for (Member member : members) {
+                auditingHandler.ifAvailable(handler -> handler.markModified(member));
+                session.update(member);
+                if (Hibernate.isPropertyInitialized(member, "team") && member.getTeam() != null) {
+                    teamIds.add(member.getTeam().getId()); //변경 후 팀
+                }
+                usernameBloomFilter.put(member.getUsername());
+                usernames.add(member.getUsername());
+                updated++;
+            }
+            flushBatch(session);
+            teamStatsRebuilder.rebuild(teamIds);
+            invalidationBus.ifAvailable(bus -> {
+                bus.invalidate(Member.class, ids);
+                bus.addKeys(Member.class, usernames);
+            });
+            return updated;
+        });
+    }
+
+    @Override
+    @Transactional
+    public int deleteStateless(Iterable<Long> memberIds) {
+        List<Long> ids = new ArrayList<>();
+        memberIds.forEach(ids::add);
+
+        return withSession(session -> {
+            Set<Long> teamIds = new HashSet<>(teamIdsOf(session, ids));
+            int deleted = 0;
+            for (List<Long> chunk : chunks(ids)) {
+                deleted += session.createQuery("delete from Member m where m.id in :ids")
+                        .setParameterList("ids", chunk)
+                        .executeUpdate();
+            }
+            teamStatsRebuilder.rebuild(teamIds);
+            invalidationBus.ifAvailable(bus -> bus.invalidate(Member.class, ids));
+            return deleted;
+        });
+    }
+
+    //JPA 트랜잭션의 커넥션을 그대로 사용 -> 같은 트랜잭션으로 커밋, 롤백
+    private <T> T withSession(Function<StatelessSession, T> work) {
+        StatelessSession session = emf.unwrap(SessionFactory.class)
+                .withStatelessOptions()
+                .connection(DataSourceUtils.getConnection(dataSource))
+                .openStatelessSession();
+        try {
+            session.setJdbcBatchSize(batchSize);
+            T result = work.apply(session);
+            flushBatch(session);
+            return result;
+        } finally {
+            session.close(); //전달받은 커넥션은 닫지 않는다.
+        }
+    }
+
+    //close 는 남아 있는 JDBC batch 를 실행하지 않고 버린다.
+    private static void flushBatch(StatelessSession session) {
+        ((SharedSessionContractImplementor) session).getJdbcCoordinator().executeBatch();
+    }
+
+    private List<Long> teamIdsOf(StatelessSession session, List<Long> memberIds) {
+        List<Long> teamIds = new ArrayList<>();
+        for (List<Long> chunk : chunks(memberIds)) {
+            teamIds.addAll(session.createQuery("select distinct m.team.id from Member m where m.id in :ids and m.team is not null", Long.class)
+                    .setParameterList("ids", chunk)
+                    .getResultList());
+        }
+        return teamIds;
+    }
+
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            chunks.add(ids.subList(from, Math.min(from + batchSize, ids.size())));
+        }
+        return chunks;
+    }
+}
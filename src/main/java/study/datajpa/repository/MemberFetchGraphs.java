@@ -0,0 +1,57 @@
+package study.datajpa.repository;
+
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+클라이언트가 요청한 expand 값으로 엔티티 그래프를 만든다.
+- 허용된 연관관계만 사용 가능 (whitelist)
+- 같은 조합은 한번만 만들고 재사용
+- 조합이 NamedEntityGraph 와 같으면 그것을 사용 ex) team -> Member.all
+ */
+@Component
+public class MemberFetchGraphs {
+
+    public static final Set<String> ALLOWED = Set.of("team");
+
+    private static final Map<String, String> NAMED = Map.of("team", "Member.all");
+
+    private final Map<String, EntityGraph<?>> cache = new ConcurrentHashMap<>();
+
+    public static boolean isAllowed(Set<String> expand) {
+        return expand == null || ALLOWED.containsAll(expand);
+    }
+
+    //expand 가 없으면 null -> 힌트 없이 기본 fetch 전략 사용
+    public EntityGraph<?> get(EntityManager em, Set<String> expand) {
+        if (expand == null || expand.isEmpty()) {
+            return null;
+        }
+        if (!isAllowed(expand)) {
+            throw new IllegalArgumentException("expand not allowed: " + expand);
+        }
+
+        SortedSet<String> paths = new TreeSet<>(expand);
+        String key = String.join(",", paths);
+        return cache.computeIfAbsent(key, k -> build(em, k, paths));
+    }
+
+    private EntityGraph<?> build(EntityManager em, String key, SortedSet<String> paths) {
+        String named = NAMED.get(key);
+        if (named != null) {
+            return em.getEntityGraph(named);
+        }
+
+        EntityGraph<Member> graph = em.createEntityGraph(Member.class);
+        paths.forEach(graph::addAttributeNodes);
+        return graph;
+    }
+}
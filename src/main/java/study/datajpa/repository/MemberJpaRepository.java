@@ -76,7 +76,7 @@ public class MemberJpaRepository {
     //벌크성 수정 쿼리
     public int bulkAgePlus(int age) {
         return em.createQuery(
-                "update Member m set m.age = m.age + 1 " +
+                "update Member m set m.age = m.age + 1, m.lastModifiedDate = current_timestamp " +
                         "where m.age >= :age")
                 .setParameter("age", age)
                 .executeUpdate();
@@ -0,0 +1,92 @@
+package study.datajpa.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import study.datajpa.dto.MemberReport;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/*
+리포트 조회용 : JPA(엔티티, 프록시 프로젝션)를 거치지 않고 JDBC 로 record 에 바로 매핑한다.
+- SQL, RowMapper 는 상수로 한번만 만들고 재사용, 컬럼은 이름 대신 순서로 읽는다.
+- 대량 조회는 fetch size 를 지정한 스트림 (트랜잭션 안에서 try-with-resources 로 닫아야 한다.)
+- 페이징, 정렬은 Spring Data Pageable 그대로 (정렬 가능한 속성만 허용)
+ */
+@Repository
+public class MemberReportRepository {
+
+    private static final String SELECT = "select m.member_id, m.username, m.age, t.name " +
+            "from member m left join team t on t.team_id = m.team_id";
+    private static final String COUNT = "select count(*) from member";
+
+    //Pageable 속성 -> 컬럼
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "m.member_id",
+            "username", "m.username",
+            "age", "m.age",
+            "teamName", "t.name");
+
+    static final RowMapper<MemberReport> ROW_MAPPER = (rs, rowNum) ->
+            new MemberReport(rs.getLong(1), rs.getString(2), rs.getInt(3), rs.getString(4));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingTemplate;
+
+    public MemberReportRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource,
+                                  @Value("${member.report.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.streamingTemplate = new JdbcTemplate(dataSource);
+        this.streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    public Page<MemberReport> findAll(Pageable pageable) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = SELECT + orderBy(pageable.getSort());
+        if (pageable.isPaged()) {
+            sql += " limit :limit offset :offset";
+            params.addValue("limit", pageable.getPageSize());
+            params.addValue("offset", pageable.getOffset());
+        }
+
+        List<MemberReport> content = jdbcTemplate.query(sql, params, ROW_MAPPER);
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+                jdbcTemplate.getJdbcTemplate().queryForObject(COUNT, Long.class));
+    }
+
+    public List<MemberReport> findByTeamName(String teamName) {
+        return jdbcTemplate.query(SELECT + " where t.name = :teamName order by m.member_id",
+                new MapSqlParameterSource("teamName", teamName), ROW_MAPPER);
+    }
+
+    public Stream<MemberReport> streamAll() {
+        return streamingTemplate.queryForStream(SELECT + " order by m.member_id", ROW_MAPPER);
+    }
+
+    private static String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                throw new IllegalArgumentException("unsupported sort property: " + order.getProperty());
+            }
+            orders.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        return " order by " + String.join(", ", orders);
+    }
+}
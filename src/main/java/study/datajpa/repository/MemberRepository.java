@@ -9,15 +9,17 @@ import study.datajpa.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /*
 리포지토리 interface 를 여러개 만들어 확장 가능
 JpaSpecificationExecutor 은 사용하지 말자!
  */
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, JpaSpecificationExecutor<Member> {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberBulkRepository, JpaSpecificationExecutor<Member> {
 
     //메소드 명으로 쿼리 생성, 이름이 길어지면 더러워진다.
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age); //select m from Member m where m.username = :username and m.age > :age
@@ -33,6 +35,11 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m.username from Member m")
     List<String> findUserNameList();
 
+    //스트리밍 조회, 트랜잭션 안에서 사용 후 close 필요
+    @QueryHints(value = @QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+    @Query("select m.username from Member m")
+    Stream<String> streamAllUsernames();
+
     @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
@@ -45,6 +52,8 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Member findMemberByUsername(String username); //단건
     Optional<Member> findOptionalByUsername(String username); //단건 Optional
 
+    List<Member> findByTeamId(Long teamId);
+
     //페이징 (Page, Slice)
     @Query(value = "select m from Member m left join m.team t",
             countQuery = "select count(m) from Member m")
@@ -52,9 +61,18 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
 
     //벌크성 수정
     @Modifying(clearAutomatically = true) //자동으로 영속성 컨텍스트를 flush, clear 해준다.
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age + 1, m.lastModifiedDate = current_timestamp where m.age >= :age") //벌크 연산은 auditing 을 거치지 않는다.
     int bulkAgePlus(@Param("age") int age);
 
+    //조건부 조회, 엔티티 대신 수정일만 조회
+    @Query("select m.lastModifiedDate from Member m where m.id = :id")
+    Optional<LocalDateTime> findLastModifiedDateById(@Param("id") Long id);
+
+    @Query(value = "select m.id as id, m.lastModifiedDate as lastModifiedDate, t.lastModifiedDate as teamLastModifiedDate " +
+            "from Member m left join m.team t",
+            countQuery = "select count(m) from Member m")
+    Page<MemberVersion> findVersionsBy(Pageable pageable);
+
     //페치 조인 (Member -> Team) : 간단한 JPQL 을 작성해야 하는 것이 귀찮다 -> @EntityGraph
     @Query("select m from Member m left join fetch m.team")
     List<Member> findMemberFetchJoin();
@@ -1,8 +1,13 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /*
 복잡한 쿼리를 관리하고 싶을 때 ex) query dsl, JDBC template
@@ -10,4 +15,10 @@ import java.util.List;
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
+
+    //expand 로 지정한 연관관계를 함께 조회 (동적 엔티티 그래프)
+    Page<Member> findAll(Pageable pageable, Set<String> expand);
+
+    //member 먼저, 없으면 member_archive (보관된 회원), findById, findMemberById 등 엔티티 조회는 member 만 본다.
+    Optional<MemberDto> findDtoById(Long id);
 }
@@ -1,19 +1,68 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final MemberFetchGraphs fetchGraphs;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
     }
+
+    @Override
+    public Page<Member> findAll(Pageable pageable, Set<String> expand) {
+        String jpql = QueryUtils.applySorting("select m from Member m", pageable.getSort(), "m");
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class);
+
+        EntityGraph<?> graph = fetchGraphs.get(em, expand);
+        if (graph != null) {
+            query.setHint("javax.persistence.fetchgraph", graph);
+        }
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Member> content = query.getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () ->
+                em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+
+    @Override
+    public Optional<MemberDto> findDtoById(Long id) {
+        Optional<MemberDto> hot = em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+                                "from Member m left join m.team t where m.id = :id", MemberDto.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+        if (hot.isPresent()) {
+            return hot;
+        }
+
+        return em.createQuery(
+                        "select new study.datajpa.dto.MemberDto(a.id, a.username, t.name) " +
+                                "from MemberArchive a left join a.team t where a.id = :id", MemberDto.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst();
+    }
 }
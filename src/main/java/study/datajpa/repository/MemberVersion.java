@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+import java.time.LocalDateTime;
+
+//조건부 조회(ETag, Last-Modified)용 프로젝션, 엔티티를 로딩하지 않는다.
+public interface MemberVersion {
+
+    Long getId();
+    LocalDateTime getLastModifiedDate();
+    LocalDateTime getTeamLastModifiedDate(); //expand=team 일 때 팀 변경도 ETag 에 반영 (팀이 없으면 null)
+}
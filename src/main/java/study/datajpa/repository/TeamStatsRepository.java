@@ -0,0 +1,14 @@
+package study.datajpa.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import study.datajpa.entity.TeamStats;
+
+import java.util.List;
+
+public interface TeamStatsRepository extends JpaRepository<TeamStats, Long> {
+
+    @Override
+    @EntityGraph(attributePaths = {"ageHistogram"})
+    List<TeamStats> findAll();
+}
@@ -0,0 +1,33 @@
+package study.datajpa.shard;
+
+import java.util.function.Supplier;
+
+/*
+현재 스레드가 사용할 shard 번호
+커넥션은 트랜잭션 시작 시점에 가져오므로, 트랜잭션보다 먼저 지정해야 한다.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
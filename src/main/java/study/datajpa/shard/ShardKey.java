@@ -0,0 +1,15 @@
+package study.datajpa.shard;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+이 파라미터(회원 또는 팀 id)의 shard 로 호출을 보낸다. (ShardRoutingAspect)
+이름이 ..ById, ..ByTeamId 인 리포지토리 메소드는 붙이지 않아도 된다.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+}
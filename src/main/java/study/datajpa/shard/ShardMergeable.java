@@ -0,0 +1,9 @@
+package study.datajpa.shard;
+
+/*
+모든 shard 에 보낸 호출의 결과를 합칠 수 있는 반환 타입 (ShardRoutingAspect)
+ */
+public interface ShardMergeable<T> {
+
+    T merge(T other);
+}
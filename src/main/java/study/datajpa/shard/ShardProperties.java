@@ -0,0 +1,24 @@
+package study.datajpa.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties("sharding")
+public class ShardProperties {
+
+    private boolean enabled = false;
+    private List<Shard> shards = new ArrayList<>();
+
+    @Getter @Setter
+    public static class Shard {
+
+        private String url;
+        private String username = "sa";
+        private String password = "";
+    }
+}
@@ -0,0 +1,349 @@
+package study.datajpa.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.aop.RepositoryPointcuts;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberArchive;
+import study.datajpa.entity.Team;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/*
+sharding 을 켜면 회원/팀 리포지토리 호출을 알맞은 shard 로 보낸다. -> 호출하는 쪽(컨트롤러 등)은 shard 를 몰라도 된다.
+- shard 하나로 정해지는 호출
+  ..ById(id), ..ByTeamId(teamId), @ShardKey 파라미터 -> id 의 shard (보관된 회원도 같은 shard 의 member_archive 에 있다.)
+  엔티티 하나 (save, delete) -> 엔티티 id, 없으면 소속 팀, 둘 다 없으면 순서대로 (회원은 팀과 같은 shard)
+- 엔티티, id 묶음 하나 (saveAll, deleteAllById, insertStateless ...) -> shard 별로 나눠서 호출 (결과는 shard 순서)
+- 그 외 -> 모든 shard 에 병렬로 호출하고 반환 타입에 맞게 합친다.
+  목록 : 이어 붙임 (Sort 파라미터가 있으면 다시 정렬), 개수 : 더함, 단건 : 둘 이상이면 예외, ShardMergeable : merge
+  페이지 : shard 마다 (offset + size) 개를 정렬해서 가져온 뒤 병합 (뒤 페이지일수록 비싸다.)
+          병합은 결과 객체의 값으로 하므로 연관관계(team.name 등)로는 정렬할 수 없다.
+이미 shard 를 정한 호출 (Shards.call) 은 그대로 실행한다.
+트랜잭션 안의 호출 (커넥션은 이미 0 번 shard)
+- 0 번 shard 로만 가는 호출은 그대로, 그 외 조회는 트랜잭션을 잠시 중단하고 보낸다. (결과는 준영속, 현재 트랜잭션의 변경은 보이지 않는다.)
+- 다른 shard 에 쓰는 호출은 거절한다. (shard 간 트랜잭션 없음) -> Shards.call 로 shard 를 먼저 정해야 한다.
+ */
+@Aspect
+@Order(RepositoryPointcuts.SHARD_ROUTING_ORDER)
+@RequiredArgsConstructor
+public class ShardRoutingAspect {
+
+    private static final Sort DEFAULT_SORT = Sort.by("id");
+    private static final List<String> READ_PREFIXES =
+            List.of("find", "get", "read", "query", "search", "count", "exists", "stream", "scan");
+
+    private final Shards shards;
+    private final PlatformTransactionManager transactionManager;
+
+    @Around("study.datajpa.aop.RepositoryPointcuts.repositoryCall() && (" +
+            "target(study.datajpa.repository.MemberRepository) || " +
+            "target(study.datajpa.repository.TeamRepository) || " +
+            "target(study.datajpa.repository.MemberArchiveRepository) || " +
+            "target(study.datajpa.repository.TeamStatsRepository) || " +
+            "target(study.datajpa.repository.BulkDeleteRepository))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (ShardContext.current() != null || shards.count() == 1) {
+            return joinPoint.proceed();
+        }
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Object[] args = joinPoint.getArgs();
+        Map<Integer, Object[]> targets = targets(method, args);
+
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return dispatch(method, args, targets);
+        }
+        if (targets.size() == 1 && targets.containsKey(0)) {
+            return joinPoint.proceed();
+        }
+        if (!isRead(method)) {
+            throw new IllegalStateException(RepositoryPointcuts.methodName(joinPoint)
+                    + " writes to another shard inside a transaction, choose the shard first with Shards.call");
+        }
+        TransactionTemplate suspended = new TransactionTemplate(transactionManager);
+        suspended.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        return suspended.execute(status -> dispatch(method, args, targets));
+    }
+
+    //shard -> 그 shard 에 넘길 인자 (shard 순서)
+    private Map<Integer, Object[]> targets(Method method, Object[] args) {
+        Integer shard = keyShard(method, args);
+        if (shard == null && args.length == 1) {
+            shard = entityShard(args[0]);
+        }
+        if (shard != null) {
+            return Map.of(shard, args);
+        }
+
+        if (args.length == 1 && args[0] instanceof Iterable<?> elements) {
+            if (!elements.iterator().hasNext()) {
+                return Map.of(0, args);
+            }
+            Map<Integer, List<Object>> groups = group(elements);
+            if (groups != null) {
+                Map<Integer, Object[]> targets = new TreeMap<>();
+                groups.forEach((s, group) -> targets.put(s, new Object[]{group}));
+                return targets;
+            }
+        }
+
+        Object[] perShard = perShardArgs(args);
+        Map<Integer, Object[]> targets = new TreeMap<>();
+        for (int s = 0; s < shards.count(); s++) {
+            targets.put(s, perShard);
+        }
+        return targets;
+    }
+
+    private Integer keyShard(Method method, Object[] args) {
+        Annotation[][] annotations = method.getParameterAnnotations();
+        for (int i = 0; i < args.length; i++) {
+            for (Annotation annotation : annotations[i]) {
+                if (annotation instanceof ShardKey && args[i] instanceof Long id) {
+                    return shards.shardOf(id);
+                }
+            }
+        }
+
+        String name = method.getName();
+        if ((name.endsWith("ById") || name.endsWith("ByTeamId")) && args.length > 0 && args[0] instanceof Long id) {
+            return shards.shardOf(id);
+        }
+        return null;
+    }
+
+    private Integer entityShard(Object arg) {
+        if (arg instanceof Member member) {
+            if (member.getId() != null) {
+                return shards.shardOf(member.getId());
+            }
+            if (member.getTeam() != null && member.getTeam().getId() != null) {
+                return shards.shardOf(member.getTeam().getId());
+            }
+            return shards.nextForInsert();
+        }
+        if (arg instanceof Team team) {
+            return team.getId() != null ? shards.shardOf(team.getId()) : shards.nextForInsert();
+        }
+        if (arg instanceof MemberArchive archive && archive.getId() != null) {
+            return shards.shardOf(archive.getId());
+        }
+        return null;
+    }
+
+    //모든 원소가 id 또는 엔티티인 경우만 나눈다. (username 목록 등은 모든 shard 로)
+    private Map<Integer, List<Object>> group(Iterable<?> elements) {
+        Map<Integer, List<Object>> groups = new TreeMap<>();
+        for (Object element : elements) {
+            Integer shard = element instanceof Long id ? Integer.valueOf(shards.shardOf(id)) : entityShard(element);
+            if (shard == null) {
+                return null;
+            }
+            groups.computeIfAbsent(shard, s -> new ArrayList<>()).add(element);
+        }
+        return groups;
+    }
+
+    //페이지는 shard 마다 처음부터 (offset + size) 개
+    private static Object[] perShardArgs(Object[] args) {
+        Object[] perShard = args.clone();
+        for (int i = 0; i < perShard.length; i++) {
+            if (perShard[i] instanceof Pageable pageable && pageable.isPaged()) {
+                Sort sort = sortOf(pageable);
+                sort.forEach(order -> checkSortable(order.getProperty()));
+                long rows = pageable.getOffset() + pageable.getPageSize();
+                if (rows > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException("page too deep for sharded paging: offset=" + pageable.getOffset());
+                }
+                perShard[i] = PageRequest.of(0, (int) rows, sort);
+            }
+        }
+        return perShard;
+    }
+
+    private Object dispatch(Method method, Object[] args, Map<Integer, Object[]> targets) {
+        if (targets.size() > 1) {
+            checkMergeable(method);
+        }
+
+        //호출 정보는 이 스레드에서만 꺼낼 수 있다. -> 미리 shard 별로 복제
+        Map<Integer, Supplier<Object>> invocations = new TreeMap<>();
+        targets.forEach((shard, shardArgs) -> invocations.put(shard, invocation(shardArgs)));
+
+        List<Object> results = shards.fanOut(new ArrayList<>(targets.keySet()), shard -> invocations.get(shard).get());
+        return results.size() == 1 ? results.get(0) : merge(method, args, results);
+    }
+
+    //다른 스레드에서도 안쪽 aspect 들이 현재 호출을 찾을 수 있도록 다시 노출한다.
+    private static Supplier<Object> invocation(Object[] args) {
+        MethodInvocation invocation = ((ProxyMethodInvocation) ExposeInvocationInterceptor.currentInvocation()).invocableClone(args);
+        return () -> {
+            try {
+                return ExposeInvocationInterceptor.INSTANCE.invoke(invocation);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    private static void checkMergeable(Method method) {
+        Class<?> type = method.getReturnType();
+        if (Stream.class.isAssignableFrom(type) || (Slice.class.isAssignableFrom(type) && !Page.class.isAssignableFrom(type))) {
+            throw new IllegalStateException("cannot merge " + type.getSimpleName() + " of " + method.getName() + " across shards");
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object merge(Method method, Object[] args, List<Object> results) {
+        Class<?> type = method.getReturnType();
+        if (type == void.class) {
+            return null;
+        }
+        if (Page.class.isAssignableFrom(type)) {
+            return mergePages(results, pageable(args));
+        }
+        if (Optional.class.equals(type)) {
+            List<Object> present = results.stream().map(Optional.class::cast)
+                    .filter(Optional::isPresent).map(Optional::get).toList();
+            return Optional.ofNullable(single(present));
+        }
+        if (Iterable.class.isAssignableFrom(type)) {
+            List<Object> merged = new ArrayList<>();
+            results.forEach(result -> ((Iterable<?>) result).forEach(merged::add));
+            Sort sort = sort(args);
+            if (sort != null && sort.isSorted()) {
+                merged.sort(comparator(sort));
+            }
+            return Set.class.isAssignableFrom(type) ? new LinkedHashSet<>(merged) : merged;
+        }
+        if (type == long.class || type == Long.class) {
+            return results.stream().mapToLong(result -> (Long) result).sum();
+        }
+        if (type == int.class || type == Integer.class) {
+            return Math.toIntExact(results.stream().mapToLong(result -> (Integer) result).sum());
+        }
+        if (type == boolean.class || type == Boolean.class) {
+            return results.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (ShardMergeable.class.isAssignableFrom(type)) {
+            return results.stream().reduce((a, b) -> ((ShardMergeable) a).merge(b)).orElse(null);
+        }
+        return single(results.stream().filter(result -> result != null).toList());
+    }
+
+    private static Object single(List<Object> found) {
+        if (found.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, found.size());
+        }
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private static Page<Object> mergePages(List<Object> results, Pageable pageable) {
+        List<Object> merged = new ArrayList<>();
+        long total = 0;
+        for (Object result : results) {
+            Page<?> page = (Page<?>) result;
+            merged.addAll(page.getContent());
+            total += page.getTotalElements();
+        }
+        if (pageable == null || pageable.isUnpaged()) {
+            return new PageImpl<>(merged, Pageable.unpaged(), total);
+        }
+
+        merged.sort(comparator(sortOf(pageable)));
+        int from = (int) Math.min(pageable.getOffset(), merged.size());
+        int to = Math.min(from + pageable.getPageSize(), merged.size());
+        return new PageImpl<>(new ArrayList<>(merged.subList(from, to)), pageable, total);
+    }
+
+    private static Pageable pageable(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Pageable pageable) {
+                return pageable;
+            }
+        }
+        return null;
+    }
+
+    private static Sort sort(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof Sort sort) {
+                return sort;
+            }
+        }
+        return null;
+    }
+
+    private static Sort sortOf(Pageable pageable) {
+        return pageable.getSort().isSorted() ? pageable.getSort() : DEFAULT_SORT;
+    }
+
+    private static void checkSortable(String property) {
+        if (property.contains(".")) {
+            throw new IllegalArgumentException("cannot sort sharded results by " + property);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> comparator = null;
+        for (Sort.Order order : sort) {
+            checkSortable(order.getProperty());
+            Comparator<Object> next = Comparator.comparing(
+                    element -> sortValue(element, order.getProperty()),
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable sortValue(Object element, String property) {
+        Object value = new BeanWrapperImpl(element).getPropertyValue(property);
+        if (value != null && !(value instanceof Comparable)) {
+            throw new IllegalArgumentException("cannot sort sharded results by " + property);
+        }
+        return (Comparable) value;
+    }
+
+    private static boolean isRead(Method method) {
+        String name = method.getName();
+        return READ_PREFIXES.stream().anyMatch(name::startsWith);
+    }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.shard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+Hibernate 는 0 번 shard 에만 스키마를 만든다. (ddl-auto)
+0 번 shard 의 스키마(H2 SCRIPT)를 나머지 shard 에 그대로 만든다. -> 비어 있는 shard 이거나 ddl-auto 가 create 일 때만
+모든 shard 의 시퀀스를 shard 수 만큼 증가하도록 맞춘다. 이미 쓴 id 보다 뒤에서, id 로 shard 를 알 수 있는 값부터 시작한다.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardSchemaInitializer {
+
+    private static final Map<String, String> ID_COLUMNS = Map.of("member", "member_id", "team", "team_id", "member_archive", "member_id");
+
+    private final Shards shards;
+    private final String ddlAuto;
+
+    @PostConstruct
+    public void initialize() throws SQLException {
+        List<DataSource> dataSources = shards.dataSources();
+        boolean recreate = ddlAuto.startsWith("create");
+        List<String> ddl = script(dataSources.get(0));
+
+        for (int shard = 1; shard < dataSources.size(); shard++) {
+            try (Connection conn = dataSources.get(shard).getConnection(); Statement statement = conn.createStatement()) {
+                if (!recreate && !isEmpty(statement)) {
+                    continue;
+                }
+                statement.execute("drop all objects");
+                for (String sql : ddl) {
+                    statement.execute(sql);
+                }
+                log.info("shard {} schema copied from shard 0", shard);
+            }
+        }
+
+        int count = dataSources.size();
+        for (int shard = 0; shard < count; shard++) {
+            try (Connection conn = dataSources.get(shard).getConnection(); Statement statement = conn.createStatement()) {
+                long next = maxUsedId(statement) + 1;
+                long start = next + Math.floorMod(shard - (next - 1), count); //(start - 1) % count == shard
+                statement.execute("alter sequence hibernate_sequence restart with " + start + " increment by " + count);
+            }
+        }
+        log.info("sharding initialized: shards={}, ddl-auto={}", count, ddlAuto);
+    }
+
+    private static boolean isEmpty(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("select count(*) from information_schema.tables where table_schema = 'PUBLIC'")) {
+            rs.next();
+            return rs.getLong(1) == 0;
+        }
+    }
+
+    //시퀀스가 마지막으로 준 값, id 컬럼의 최댓값 중 큰 값
+    private static long maxUsedId(Statement statement) throws SQLException {
+        long max = 0;
+        try (ResultSet rs = statement.executeQuery(
+                "select current_value from information_schema.sequences where sequence_name = 'HIBERNATE_SEQUENCE'")) {
+            if (rs.next()) {
+                max = rs.getLong(1);
+            }
+        }
+        for (Map.Entry<String, String> column : ID_COLUMNS.entrySet()) {
+            try (ResultSet rs = statement.executeQuery("select max(" + column.getValue() + ") from " + column.getKey())) {
+                rs.next();
+                max = Math.max(max, rs.getLong(1));
+            }
+        }
+        return max;
+    }
+
+    private static List<String> script(DataSource dataSource) throws SQLException {
+        List<String> ddl = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("script nodata nopasswords nosettings")) {
+            while (rs.next()) {
+                String sql = rs.getString(1);
+                if (!sql.startsWith("CREATE USER")) {
+                    ddl.add(sql);
+                }
+            }
+        }
+        return ddl;
+    }
+}
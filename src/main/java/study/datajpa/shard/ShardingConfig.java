@@ -0,0 +1,67 @@
+package study.datajpa.shard;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingConfig {
+
+    //sharding 사용 x -> 기존 DataSource 하나
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    public Shards singleShard(DataSource dataSource) {
+        return new Shards(List.of(dataSource), false);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+    public Shards shards(ShardProperties properties) {
+        if (properties.getShards().isEmpty()) {
+            throw new IllegalStateException("sharding.shards is empty");
+        }
+
+        List<DataSource> dataSources = properties.getShards().stream()
+                .map(shard -> {
+                    HikariDataSource dataSource = new HikariDataSource();
+                    dataSource.setJdbcUrl(shard.getUrl());
+                    dataSource.setUsername(shard.getUsername());
+                    dataSource.setPassword(shard.getPassword());
+                    return (DataSource) dataSource;
+                })
+                .toList();
+        return new Shards(dataSources, true);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+    public DataSource dataSource(Shards shards) {
+        return new ShardRoutingDataSource(shards.dataSources());
+    }
+
+    //회원/팀 리포지토리 호출을 shard 로 보낸다.
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+    public ShardRoutingAspect shardRoutingAspect(Shards shards, PlatformTransactionManager transactionManager) {
+        return new ShardRoutingAspect(shards, transactionManager);
+    }
+
+    //EntityManagerFactory(ddl-auto) 이후에 실행
+    @Bean
+    @ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+    public ShardSchemaInitializer shardSchemaInitializer(Shards shards, EntityManagerFactory entityManagerFactory,
+                                                         @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return new ShardSchemaInitializer(shards, ddlAuto);
+    }
+}
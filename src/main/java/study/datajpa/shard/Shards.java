@@ -0,0 +1,119 @@
+package study.datajpa.shard;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/*
+shard 배치 규칙
+- 각 shard 의 hibernate_sequence 는 (shard 번호 + 1) 부터 shard 수 만큼 증가한다. -> id 만 보고 shard 를 알 수 있다.
+- Team 은 순서대로 돌아가며 배치, Member 는 소속 팀과 같은 shard (팀이 없으면 순서대로)
+sharding 을 사용하지 않으면 shard 는 하나(0)다.
+ */
+public class Shards {
+
+    private final List<DataSource> dataSources;
+    private final boolean ownsDataSources; //shard 커넥션 풀을 직접 만든 경우 종료 시 닫는다.
+    private final AtomicInteger next = new AtomicInteger();
+    private final ExecutorService executor;
+
+    public Shards(List<DataSource> dataSources, boolean ownsDataSources) {
+        this.dataSources = List.copyOf(dataSources);
+        this.ownsDataSources = ownsDataSources;
+        this.executor = Executors.newFixedThreadPool(Math.max(2, dataSources.size() * 2), r -> {
+            Thread thread = new Thread(r, "shard-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    public List<DataSource> dataSources() {
+        return dataSources;
+    }
+
+    public int shardOf(long id) {
+        return (int) ((id - 1) % count());
+    }
+
+    public int nextForInsert() {
+        return Math.floorMod(next.getAndIncrement(), count());
+    }
+
+    //트랜잭션 밖에서 호출해야 한다. (이미 다른 shard 커넥션을 잡고 있으면 바꿀 수 없다.)
+    public <T> T call(int shard, Supplier<T> action) {
+        Integer current = ShardContext.current();
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !Objects.equals(current == null ? 0 : current, shard)) {
+            throw new IllegalStateException("cannot switch to shard " + shard + " inside a transaction on shard " + current);
+        }
+        return ShardContext.call(shard, action);
+    }
+
+    public void forEach(IntFunction<?> action) {
+        for (int shard = 0; shard < count(); shard++) {
+            int s = shard;
+            call(s, () -> action.apply(s));
+        }
+    }
+
+    //모든 shard 에 병렬로 실행, shard 순서대로 결과 반환
+    public <T> List<T> fanOut(IntFunction<T> action) {
+        List<Integer> all = new ArrayList<>();
+        for (int shard = 0; shard < count(); shard++) {
+            all.add(shard);
+        }
+        return fanOut(all, action);
+    }
+
+    //지정한 shard 들에 병렬로 실행, targets 순서대로 결과 반환
+    public <T> List<T> fanOut(List<Integer> targets, IntFunction<T> action) {
+        if (targets.size() == 1) {
+            int shard = targets.get(0);
+            return List.of(call(shard, () -> action.apply(shard)));
+        }
+
+        List<Future<T>> futures = new ArrayList<>();
+        for (int shard : targets) {
+            futures.add(executor.submit(() -> ShardContext.call(shard, () -> action.apply(shard))));
+        }
+
+        List<T> results = new ArrayList<>();
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("shard fan-out interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("shard fan-out failed", e.getCause());
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() throws Exception {
+        executor.shutdownNow();
+        if (ownsDataSources) {
+            for (DataSource dataSource : dataSources) {
+                if (dataSource instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+            }
+        }
+    }
+}
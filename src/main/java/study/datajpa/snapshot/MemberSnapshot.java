@@ -0,0 +1,269 @@
+package study.datajpa.snapshot;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/*
+회원 읽기 전용 컬럼 스냅샷 (분석용)
+- 행 i : ids[i], ages[i], teamIds[i] (팀 없음 = NO_TEAM), usernameCodes[i] -> dictionary
+- 집계는 행 구간을 나눠 fork/join 으로 병렬 실행 후 병합
+한번 만들면 변경하지 않는다. 새 데이터는 새 스냅샷으로 교체
+ */
+public final class MemberSnapshot {
+
+    public static final long NO_TEAM = -1L;
+    private static final int SEGMENT = 1 << 16; //이보다 작은 구간은 나누지 않는다.
+
+    private final long[] ids;
+    private final int[] ages;
+    private final long[] teamIds;
+    private final int[] usernameCodes;
+    private final String[] dictionary;
+    private final int[] dictionaryLengths; //username 길이, 코드 별로 한번만 계산
+    private final int size;
+    private final LocalDateTime builtAt;
+
+    private MemberSnapshot(long[] ids, int[] ages, long[] teamIds, int[] usernameCodes, String[] dictionary, int size) {
+        this.ids = ids;
+        this.ages = ages;
+        this.teamIds = teamIds;
+        this.usernameCodes = usernameCodes;
+        this.dictionary = dictionary;
+        this.dictionaryLengths = Arrays.stream(dictionary).mapToInt(String::length).toArray();
+        this.size = size;
+        this.builtAt = LocalDateTime.now();
+    }
+
+    public static MemberSnapshot empty() {
+        return new Builder().build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public LocalDateTime builtAt() {
+        return builtAt;
+    }
+
+    public String username(int row) {
+        return dictionary[usernameCodes[row]];
+    }
+
+    public long id(int row) {
+        return ids[row];
+    }
+
+    //컬럼 배열 + 사전 문자열의 대략적인 크기
+    public long estimatedBytes() {
+        long columns = (long) size * (Long.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES);
+        long strings = 0;
+        for (String username : dictionary) {
+            strings += 40 + username.length(); //String 헤더 + byte[] (LATIN1)
+        }
+        return columns + strings + (long) dictionary.length * (Integer.BYTES + 8);
+    }
+
+    //나이 분포, teamId == null 이면 전체
+    public long[] ageHistogram(int bucketWidth, Long teamId) {
+        int buckets = 200 / bucketWidth + 1; //마지막 버킷 = 그 이상
+        long team = teamId == null ? NO_TEAM : teamId;
+        return aggregate((from, to) -> {
+            long[] histogram = new long[buckets];
+            for (int i = from; i < to; i++) {
+                if (teamId == null || teamIds[i] == team) {
+                    histogram[Math.min(Math.max(ages[i], 0) / bucketWidth, buckets - 1)]++;
+                }
+            }
+            return histogram;
+        }, (a, b) -> {
+            for (int i = 0; i < a.length; i++) {
+                a[i] += b[i];
+            }
+            return a;
+        });
+    }
+
+    public AgeStats ageStats(Long teamId) {
+        long team = teamId == null ? NO_TEAM : teamId;
+        return aggregate((from, to) -> {
+            long count = 0, sum = 0;
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                if (teamId == null || teamIds[i] == team) {
+                    int age = ages[i];
+                    count++;
+                    sum += age;
+                    min = Math.min(min, age);
+                    max = Math.max(max, age);
+                }
+            }
+            return count == 0 ? AgeStats.EMPTY : new AgeStats(count, sum, min, max);
+        }, AgeStats::merge);
+    }
+
+    //팀 별 회원 수 (팀 없음 = NO_TEAM)
+    public Map<Long, Long> countByTeam() {
+        return aggregate((from, to) -> {
+            Map<Long, Long> counts = new HashMap<>();
+            long current = Long.MIN_VALUE;
+            long run = 0;
+            for (int i = from; i < to; i++) { //같은 팀이 연속된 구간은 한번에 더한다.
+                if (teamIds[i] != current) {
+                    if (run > 0) {
+                        counts.merge(current, run, Long::sum);
+                    }
+                    current = teamIds[i];
+                    run = 0;
+                }
+                run++;
+            }
+            if (run > 0) {
+                counts.merge(current, run, Long::sum);
+            }
+            return counts;
+        }, (a, b) -> {
+            b.forEach((k, v) -> a.merge(k, v, Long::sum));
+            return a;
+        });
+    }
+
+    public LengthStats usernameLengths() {
+        return aggregate((from, to) -> {
+            long count = 0, sum = 0;
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (int i = from; i < to; i++) {
+                int length = dictionaryLengths[usernameCodes[i]];
+                count++;
+                sum += length;
+                min = Math.min(min, length);
+                max = Math.max(max, length);
+            }
+            return count == 0 ? new LengthStats(0, 0, 0, 0, dictionary.length) : new LengthStats(count, sum, min, max, dictionary.length);
+        }, LengthStats::merge);
+    }
+
+    private <A> A aggregate(Segment<A> segment, BinaryOperator<A> merge) {
+        return ForkJoinPool.commonPool().invoke(new SegmentTask<>(segment, merge, 0, size));
+    }
+
+    @FunctionalInterface
+    private interface Segment<A> {
+        A compute(int from, int to);
+    }
+
+    private static class SegmentTask<A> extends RecursiveTask<A> {
+
+        private final Segment<A> segment;
+        private final BinaryOperator<A> merge;
+        private final int from;
+        private final int to;
+
+        SegmentTask(Segment<A> segment, BinaryOperator<A> merge, int from, int to) {
+            this.segment = segment;
+            this.merge = merge;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from <= SEGMENT) {
+                return segment.compute(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            SegmentTask<A> left = new SegmentTask<>(segment, merge, from, mid);
+            left.fork();
+            A right = new SegmentTask<>(segment, merge, mid, to).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+
+    //대상이 없으면 min, max 도 0
+    public record AgeStats(long count, long sum, int min, int max) {
+
+        static final AgeStats EMPTY = new AgeStats(0, 0, 0, 0);
+
+        public double average() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        AgeStats merge(AgeStats other) {
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            return new AgeStats(count + other.count, sum + other.sum, Math.min(min, other.min), Math.max(max, other.max));
+        }
+    }
+
+    public record LengthStats(long count, long sum, int min, int max, int distinct) {
+
+        public double average() {
+            return count == 0 ? 0.0 : (double) sum / count;
+        }
+
+        LengthStats merge(LengthStats other) {
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            return new LengthStats(count + other.count, sum + other.sum, Math.min(min, other.min), Math.max(max, other.max), distinct);
+        }
+    }
+
+    //행을 순서대로 추가, 배열은 2배씩 늘린다.
+    public static class Builder {
+
+        private long[] ids = new long[1024];
+        private int[] ages = new int[1024];
+        private long[] teamIds = new long[1024];
+        private int[] usernameCodes = new int[1024];
+        private final Map<String, Integer> codes = new HashMap<>();
+        private String[] dictionary = new String[1024];
+        private int size;
+
+        public Builder add(long id, int age, Long teamId, String username) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                ages = Arrays.copyOf(ages, capacity);
+                teamIds = Arrays.copyOf(teamIds, capacity);
+                usernameCodes = Arrays.copyOf(usernameCodes, capacity);
+            }
+            ids[size] = id;
+            ages[size] = age;
+            teamIds[size] = teamId == null ? NO_TEAM : teamId;
+            usernameCodes[size] = encode(username == null ? "" : username);
+            size++;
+            return this;
+        }
+
+        private int encode(String username) {
+            Integer code = codes.get(username);
+            if (code == null) {
+                code = codes.size();
+                if (code == dictionary.length) {
+                    dictionary = Arrays.copyOf(dictionary, code * 2);
+                }
+                dictionary[code] = username;
+                codes.put(username, code);
+            }
+            return code;
+        }
+
+        public MemberSnapshot build() {
+            return new MemberSnapshot(Arrays.copyOf(ids, size), Arrays.copyOf(ages, size), Arrays.copyOf(teamIds, size),
+                    Arrays.copyOf(usernameCodes, size), Arrays.copyOf(dictionary, codes.size()), size);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import study.datajpa.shard.Shards;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
+
+/*
+주기적으로 member 테이블 전체를 스트리밍으로 읽어 컬럼 스냅샷을 새로 만들고 한번에 교체한다.
+조회는 항상 마지막으로 완성된 스냅샷을 사용한다. (refresh 중에도 이전 스냅샷으로 응답)
+ */
+@Slf4j
+@Component
+public class MemberSnapshotService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Shards shards;
+
+    private volatile MemberSnapshot snapshot = MemberSnapshot.empty();
+
+    public MemberSnapshotService(DataSource dataSource, Shards shards,
+                                 @Value("${member.snapshot.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.shards = shards;
+    }
+
+    public MemberSnapshot current() {
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${member.snapshot.refresh-interval:300000}",
+            initialDelayString = "${member.snapshot.refresh-interval:300000}")
+    public synchronized MemberSnapshot refresh() {
+        long start = System.nanoTime();
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder();
+        shards.forEach(shard -> {
+            jdbcTemplate.query("select member_id, age, team_id, username from member order by member_id", rs -> {
+                long teamId = rs.getLong(3);
+                builder.add(rs.getLong(1), rs.getInt(2), rs.wasNull() ? null : teamId, rs.getString(4));
+            });
+            return null;
+        });
+
+        MemberSnapshot next = builder.build();
+        snapshot = next;
+        log.info("member snapshot refreshed: rows={}, ~{}KB, {}ms", next.size(), next.estimatedBytes() / 1024,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return next;
+    }
+}
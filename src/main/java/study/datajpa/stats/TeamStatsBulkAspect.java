@@ -0,0 +1,42 @@
+package study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+벌크 연산은 엔티티 이벤트가 없으므로, 같은 트랜잭션 안에서 영향 받은 팀만 다시 계산한다.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class TeamStatsBulkAspect {
+
+    private final TeamStatsRebuilder rebuilder;
+    private final PlatformTransactionManager transactionManager;
+
+    @Around("execution(int study.datajpa.repository.MemberRepository.bulkAgePlus(int)) || " +
+            "execution(int study.datajpa.repository.MemberJpaRepository.bulkAgePlus(int))")
+    public Object bulkAgePlus(ProceedingJoinPoint joinPoint) {
+        int age = (int) joinPoint.getArgs()[0];
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Object result = proceed(joinPoint);
+            rebuilder.rebuildAfterAgePlus(age);
+            return result;
+        });
+    }
+
+    private static Object proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            return joinPoint.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package study.datajpa.stats;
+
+import org.hibernate.bytecode.enhance.spi.LazyPropertyInitializer;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.*;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.Objects;
+
+/*
+Member insert, update, delete 시점에 team_stats 를 같은 트랜잭션 안에서 증분 갱신한다.
+- update, delete 는 Pre 이벤트에서 처리한다. (아직 DB 에 이전 상태가 남아있어 지연 로딩된 team 의 id 를 조회할 수 있다.)
+- 벌크 연산은 이벤트가 발생하지 않는다. -> TeamStatsBulkAspect
+ */
+@Component
+public class TeamStatsEventListener implements PostInsertEventListener, PreUpdateEventListener, PreDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+
+    public TeamStatsEventListener(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImpl.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.PRE_UPDATE, this);
+        registry.appendListeners(EventType.PRE_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team team) {
+            event.getSession().doWork(conn -> TeamStatsWriter.createTeam(conn, team.getId()));
+            return;
+        }
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            Long teamId = teamId(event.getState()[index(persister, "team")]);
+            int age = (int) event.getState()[index(persister, "age")];
+            if (teamId != null) {
+                event.getSession().doWork(conn -> TeamStatsWriter.add(conn, teamId, age));
+            }
+        }
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return false;
+        }
+
+        EntityPersister persister = event.getPersister();
+        int teamIndex = index(persister, "team");
+        int ageIndex = index(persister, "age");
+        Long memberId = (Long) event.getId();
+        Object[] oldState = event.getOldState(); //detached 엔티티 update 등은 이전 상태가 없다. -> 아직 DB 에 남아있는 값
+
+        event.getSession().doWork(conn -> {
+            Long oldTeamId;
+            int oldAge;
+            if (oldState == null) {
+                Object[] row = TeamStatsWriter.findTeamIdAndAge(conn, memberId);
+                if (row == null) {
+                    return;
+                }
+                oldTeamId = (Long) row[0];
+                oldAge = (int) row[1];
+            } else {
+                Object oldTeam = oldState[teamIndex];
+                oldTeamId = isUnfetched(oldTeam) ? TeamStatsWriter.findTeamId(conn, memberId) : teamId(oldTeam);
+                oldAge = (int) oldState[ageIndex];
+            }
+            Object newTeam = event.getState()[teamIndex];
+            Long newTeamId = isUnfetched(newTeam) ? oldTeamId : teamId(newTeam);
+            int newAge = (int) event.getState()[ageIndex];
+
+            if (Objects.equals(oldTeamId, newTeamId)) {
+                if (newTeamId != null && oldAge != newAge) {
+                    TeamStatsWriter.changeAge(conn, newTeamId, oldAge, newAge);
+                }
+                return;
+            }
+            if (oldTeamId != null) {
+                TeamStatsWriter.remove(conn, oldTeamId, oldAge);
+            }
+            if (newTeamId != null) {
+                TeamStatsWriter.add(conn, newTeamId, newAge);
+            }
+        });
+        return false;
+    }
+
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        if (event.getEntity() instanceof Team team) {
+            event.getSession().doWork(conn -> TeamStatsWriter.removeTeam(conn, team.getId()));
+            return false;
+        }
+        if (event.getEntity() instanceof Member) {
+            EntityPersister persister = event.getPersister();
+            Object team = event.getDeletedState()[index(persister, "team")];
+            int age = (int) event.getDeletedState()[index(persister, "age")];
+            Long memberId = (Long) event.getId();
+
+            event.getSession().doWork(conn -> {
+                Long teamId = isUnfetched(team) ? TeamStatsWriter.findTeamId(conn, memberId) : teamId(team);
+                if (teamId != null) {
+                    TeamStatsWriter.remove(conn, teamId, age);
+                }
+            });
+        }
+        return false;
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private static int index(EntityPersister persister, String property) {
+        return persister.getEntityMetamodel().getPropertyIndex(property);
+    }
+
+    private static boolean isUnfetched(Object value) {
+        return value == LazyPropertyInitializer.UNFETCHED_PROPERTY;
+    }
+
+    private static Long teamId(Object value) {
+        return value instanceof Team team ? team.getId() : null;
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.stats;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.shard.Shards;
+
+import java.util.Collection;
+import java.util.List;
+
+/*
+team_stats 전체(또는 일부 팀) 재계산, 집합 연산 SQL 한번으로 처리한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsRebuilder {
+
+    private static final String BUCKET = "least(greatest(m.age, 0) / 10, 9)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final Shards shards;
+
+    //shard 마다 각자의 트랜잭션으로 재계산 (팀과 회원은 같은 shard 에 있다.)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        shards.forEach(shard -> tx.execute(status -> {
+            rebuildCurrentShard();
+            return null;
+        }));
+    }
+
+    private void rebuildCurrentShard() {
+        jdbcTemplate.update("delete from team_stats_histogram", new MapSqlParameterSource());
+        jdbcTemplate.update("delete from team_stats", new MapSqlParameterSource());
+        jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum) " +
+                "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0) " +
+                "from team t left join member m on m.team_id = t.team_id " +
+                "group by t.team_id", new MapSqlParameterSource());
+        jdbcTemplate.update("insert into team_stats_histogram (team_id, bucket, member_count) " +
+                "select m.team_id, " + BUCKET + ", count(*) from member m " +
+                "where m.team_id is not null " +
+                "group by m.team_id, " + BUCKET, new MapSqlParameterSource());
+    }
+
+    @Transactional
+    public void rebuild(Collection<Long> teamIds) {
+        if (teamIds.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource("teamIds", teamIds);
+        jdbcTemplate.update("delete from team_stats_histogram where team_id in (:teamIds)", params);
+        jdbcTemplate.update("delete from team_stats where team_id in (:teamIds)", params);
+        jdbcTemplate.update("insert into team_stats (team_id, member_count, age_sum) " +
+                "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0) " +
+                "from team t left join member m on m.team_id = t.team_id " +
+                "where t.team_id in (:teamIds) " +
+                "group by t.team_id", params);
+        jdbcTemplate.update("insert into team_stats_histogram (team_id, bucket, member_count) " +
+                "select m.team_id, " + BUCKET + ", count(*) from member m " +
+                "where m.team_id in (:teamIds) " +
+                "group by m.team_id, " + BUCKET, params);
+    }
+
+    //벌크 나이 변경 후 영향 받은 팀 (변경 후 age >= age + 1)
+    @Transactional
+    public void rebuildAfterAgePlus(int age) {
+        List<Long> teamIds = jdbcTemplate.queryForList(
+                "select distinct team_id from member where age >= :age and team_id is not null",
+                new MapSqlParameterSource("age", age + 1), Long.class);
+        rebuild(teamIds);
+    }
+}
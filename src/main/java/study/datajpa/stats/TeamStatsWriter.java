@@ -0,0 +1,120 @@
+package study.datajpa.stats;
+
+import study.datajpa.entity.TeamStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/*
+team_stats, team_stats_histogram 증분 반영 (JDBC)
+row 가 없으면 insert 한다. (update 후 insert 는 동시 insert 가 경합한다. -> merge 한 문장)
+merge ... key(...) 는 값을 덮어쓰므로, 증분은 merge ... using ... when matched 로 처리한다.
+ */
+public class TeamStatsWriter {
+
+    private TeamStatsWriter() {
+    }
+
+    static void apply(Connection conn, Long teamId, int countDelta, int ageDelta, int bucket, int bucketDelta) throws SQLException {
+        if (countDelta != 0 || ageDelta != 0) {
+            update(conn, "merge into team_stats s " +
+                            "using (select cast(? as bigint) team_id, cast(? as bigint) count_delta, cast(? as bigint) age_delta) d " +
+                            "on s.team_id = d.team_id " +
+                            "when matched then update set s.member_count = s.member_count + d.count_delta, s.age_sum = s.age_sum + d.age_delta " +
+                            "when not matched then insert (team_id, member_count, age_sum) values (d.team_id, d.count_delta, d.age_delta)",
+                    teamId, countDelta, ageDelta);
+        }
+
+        if (bucketDelta != 0) {
+            update(conn, "merge into team_stats_histogram h " +
+                            "using (select cast(? as bigint) team_id, cast(? as int) bucket, cast(? as bigint) delta) d " +
+                            "on h.team_id = d.team_id and h.bucket = d.bucket " +
+                            "when matched then update set h.member_count = h.member_count + d.delta " +
+                            "when not matched then insert (team_id, bucket, member_count) values (d.team_id, d.bucket, d.delta)",
+                    teamId, bucket, bucketDelta);
+        }
+    }
+
+    //나이 변경 : 나이 합, 분포만 바뀐다.
+    static void changeAge(Connection conn, Long teamId, int oldAge, int newAge) throws SQLException {
+        apply(conn, teamId, 0, newAge - oldAge, 0, 0);
+        if (TeamStats.bucket(oldAge) != TeamStats.bucket(newAge)) {
+            apply(conn, teamId, 0, 0, TeamStats.bucket(oldAge), -1);
+            apply(conn, teamId, 0, 0, TeamStats.bucket(newAge), 1);
+        }
+    }
+
+    //여러 회원의 나이 변경을 한번에 반영 : 나이 합은 차이만큼, 분포는 구간이 바뀐 회원만 (회원 수는 그대로)
+    public static void changeAges(Connection conn, Long teamId, int[] oldAges, int[] newAges) throws SQLException {
+        int ageDelta = 0;
+        int[] bucketDeltas = new int[TeamStats.BUCKETS];
+        for (int i = 0; i < oldAges.length; i++) {
+            ageDelta += newAges[i] - oldAges[i];
+            if (TeamStats.bucket(oldAges[i]) != TeamStats.bucket(newAges[i])) {
+                bucketDeltas[TeamStats.bucket(oldAges[i])]--;
+                bucketDeltas[TeamStats.bucket(newAges[i])]++;
+            }
+        }
+
+        apply(conn, teamId, 0, ageDelta, 0, 0);
+        for (int bucket = 0; bucket < bucketDeltas.length; bucket++) {
+            apply(conn, teamId, 0, 0, bucket, bucketDeltas[bucket]);
+        }
+    }
+
+    static void add(Connection conn, Long teamId, int age) throws SQLException {
+        apply(conn, teamId, 1, age, TeamStats.bucket(age), 1);
+    }
+
+    static void remove(Connection conn, Long teamId, int age) throws SQLException {
+        apply(conn, teamId, -1, -age, TeamStats.bucket(age), -1);
+    }
+
+    static void createTeam(Connection conn, Long teamId) throws SQLException {
+        update(conn, "merge into team_stats (team_id, member_count, age_sum) key (team_id) values (?, 0, 0)", teamId);
+    }
+
+    static void removeTeam(Connection conn, Long teamId) throws SQLException {
+        update(conn, "delete from team_stats_histogram where team_id = ?", teamId);
+        update(conn, "delete from team_stats where team_id = ?", teamId);
+    }
+
+    //이전 상태를 모를 때 (detached 엔티티 update 등) DB 에 남아있는 값 : {team_id, age}, 없으면 null
+    static Object[] findTeamIdAndAge(Connection conn, Long memberId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("select team_id, age from member where member_id = ?")) {
+            ps.setLong(1, memberId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                long teamId = rs.getLong(1);
+                return new Object[]{rs.wasNull() ? null : teamId, rs.getInt(2)};
+            }
+        }
+    }
+
+    //지연 로딩(바이트코드 향상) 으로 team 값이 없을 때 DB 에서 직접 조회
+    static Long findTeamId(Connection conn, Long memberId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("select team_id from member where member_id = ?")) {
+            ps.setLong(1, memberId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    long teamId = rs.getLong(1);
+                    return rs.wasNull() ? null : teamId;
+                }
+                return null;
+            }
+        }
+    }
+
+    private static int update(Connection conn, String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps.executeUpdate();
+        }
+    }
+}
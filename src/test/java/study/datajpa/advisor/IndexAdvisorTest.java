@@ -0,0 +1,54 @@
+package study.datajpa.advisor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:advisor;DB_CLOSE_DELAY=-1")
+class IndexAdvisorTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired IndexAdvisor indexAdvisor;
+
+    @Test
+    public void parse() {
+        List<QueryShape> shapes = QueryShape.parse("select member0_.member_id as member_i1_0_ from member member0_ " +
+                "left outer join team team1_ on member0_.team_id=team1_.team_id " +
+                "where member0_.username=? and member0_.age>? order by member0_.age desc limit ?");
+
+        assertThat(shapes).containsExactly(new QueryShape("member", List.of("username"), List.of("age"), List.of("age")));
+    }
+
+    @Test
+    public void recommendAndApply() {
+        //given
+        memberRepository.save(new Member("AAA", 10));
+        for (int i = 0; i < 5; i++) {
+            memberRepository.findByUsernameAndAgeGreaterThan("AAA", 5);
+        }
+
+        //when
+        List<IndexAdvisor.Recommendation> recommendations = indexAdvisor.recommendations();
+
+        //then
+        IndexAdvisor.Recommendation recommendation = recommendations.stream()
+                .filter(r -> r.columns().equals(List.of("username", "age")))
+                .findFirst().orElseThrow();
+        assertThat(recommendation.table()).isEqualTo("member");
+        assertThat(recommendation.executions()).isGreaterThanOrEqualTo(5);
+        assertThat(recommendation.methods()).contains("MemberRepository.findByUsernameAndAgeGreaterThan");
+
+        //적용 후에는 더 이상 추천하지 않는다.
+        indexAdvisor.apply(recommendation.name());
+        memberRepository.findByUsernameAndAgeGreaterThan("AAA", 5);
+
+        assertThat(indexAdvisor.recommendations()).noneMatch(r -> r.name().equals(recommendation.name()));
+        assertThat(indexAdvisor.applied()).anyMatch(a -> a.name().equals(recommendation.name()) && a.afterExecutions() == 1);
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.archive;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.MemberArchive;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberArchiveRepository;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+        "archive.batch-size=2",
+        "archive.max-rows-per-run=3",
+        "archive.pause=0"})
+class MemberArchiverTest {
+
+    @Autowired MemberArchiver archiver;
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberArchiveRepository memberArchiveRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired TransactionTemplate tx;
+
+    @Test
+    public void archiveInBatchesAndResume() {
+        //given : 오래된 회원 5명 (팀 소속), 최근 회원 1명
+        List<Long> coldIds = new ArrayList<>();
+        Long[] ids = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("archive-team"));
+            for (int i = 0; i < 5; i++) {
+                coldIds.add(memberRepository.save(new Member("cold" + i, 10, team)).getId());
+            }
+            return new Long[]{team.getId(), memberRepository.save(new Member("hot", 20, team)).getId()};
+        });
+        jdbcTemplate.update("update member set last_modified_date = dateadd('YEAR', -3, current_timestamp) where username like 'cold%'");
+
+        //when : 한 번에 3명까지 -> 멈춤, 다음 실행에서 이어서
+        MemberArchiver.Result first = archiver.run();
+        MemberArchiver.Result second = archiver.run();
+
+        //then
+        assertThat(first.archived()).isEqualTo(3);
+        assertThat(first.complete()).isFalse();
+        assertThat(second.archived()).isEqualTo(2);
+        assertThat(second.complete()).isTrue();
+
+        assertThat(memberRepository.findAllById(coldIds)).isEmpty();
+        assertThat(memberRepository.findById(ids[1])).isPresent();
+        List<MemberArchive> archived = memberArchiveRepository.findByTeamId(ids[0]);
+        assertThat(archived).extracting(MemberArchive::getId).containsExactlyInAnyOrderElementsOf(coldIds);
+
+        //id 조회 : member -> member_archive
+        assertThat(memberRepository.findDtoById(coldIds.get(0)))
+                .get()
+                .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+                .containsExactly("cold0", "archive-team");
+        assertThat(memberRepository.findDtoById(ids[1])).get().extracting(MemberDto::getUsername).isEqualTo("hot");
+
+        //team_stats 에서 빠진다.
+        Long count = jdbcTemplate.queryForObject("select member_count from team_stats where team_id = ?", Long.class, ids[0]);
+        assertThat(count).isEqualTo(1);
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.bloom;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class UsernameBloomFilterTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired UsernameBloomFilter filter;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void missWithoutQuery() {
+        //given
+        memberRepository.save(new Member("member1", 10));
+        em.flush();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        //when
+        Optional<Member> miss = memberRepository.findOptionalByUsername("bloom-miss");
+        long afterMiss = statistics.getPrepareStatementCount();
+        Member hit = memberRepository.findMemberByUsername("member1");
+
+        //then
+        assertThat(filter.mightContain("bloom-miss")).isFalse();
+        assertThat(miss).isEmpty();
+        assertThat(afterMiss).isEqualTo(before); //SQL 없음
+        assertThat(hit.getUsername()).isEqualTo("member1");
+        assertThat(filter.stats().falsePositives()).isZero();
+    }
+
+    @Test
+    public void rebuildKeepsUncommittedUsername() {
+        //given : 스캔에 보이지 않는 (커밋 전) username
+        UsernameBloomFilter local = new UsernameBloomFilter(1000, 0.01, 600000, 1000);
+        local.put("uncommitted");
+
+        //when
+        local.rebuild(sink -> sink.accept("scanned"));
+
+        //then
+        assertThat(local.mightContain("uncommitted")).isTrue();
+        assertThat(local.mightContain("scanned")).isTrue();
+    }
+
+    @Test
+    public void unflushedUsernameChange() {
+        //given
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+
+        //when
+        member.setUsername("renamed"); //flush 전 변경
+        Member findMember = memberRepository.findMemberByUsername("renamed");
+
+        //then
+        assertThat(findMember).isEqualTo(member);
+    }
+
+    @Test
+    public void savedUsernameBoundToTransaction() {
+        //when
+        memberRepository.save(new Member("saved", 10));
+        new Member("unsaved").setUsername("renamed");
+
+        //then : 영속성 컨텍스트를 훑지 않고 트랜잭션 리소스로 확인
+        assertThat(TransactionUsernames.contains("saved")).isTrue();
+        assertThat(TransactionUsernames.contains("renamed")).isTrue();
+        assertThat(TransactionUsernames.contains("other")).isFalse();
+    }
+
+    @Test
+    public void rejectTooLargeFilter() {
+        //AtomicLongArray 한도 (약 2^37 bit) 를 넘는 설정
+        assertThatThrownBy(() -> new UsernameBloomFilter(100_000_000_000L, 0.0001, 600000, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new UsernameBloomFilter(1000, 1.0, 600000, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,178 @@
+package study.datajpa.bulkhead;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import study.datajpa.controller.BulkheadExceptionAdvice;
+
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//limit 조절은 가짜 시계로 검증 (대기 시간만 실제 시간)
+class AdaptiveBulkheadTest {
+
+    static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    AtomicLong clock = new AtomicLong(1_000 * MS);
+
+    @Test
+    public void queueThenAcquire() throws InterruptedException {
+        //given : limit 1, 대기열 1
+        AdaptiveBulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+        bulkhead.acquire();
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread waiter = new Thread(() -> {
+            bulkhead.acquire();
+            acquired.countDown();
+        });
+        waiter.start();
+        awaitWaiting(bulkhead, 1);
+
+        //when
+        bulkhead.release(MS, AdaptiveBulkhead.Outcome.SUCCESS);
+
+        //then : 대기 중이던 요청이 자리를 받는다.
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(bulkhead.snapshot().inFlight()).isEqualTo(1);
+        assertThat(bulkhead.snapshot().waiting()).isZero();
+    }
+
+    @Test
+    public void rejectWhenQueueFull() throws InterruptedException {
+        //given : limit 1 사용 중, 대기열 1 도 차 있음
+        AdaptiveBulkhead bulkhead = bulkhead(1, 1, Duration.ofSeconds(5));
+        bulkhead.acquire();
+        Thread waiter = new Thread(bulkhead::acquire);
+        waiter.start();
+        awaitWaiting(bulkhead, 1);
+
+        //when, then : 기다리지 않고 바로 거절
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadFullException.class);
+        assertThat(bulkhead.snapshot().rejected()).isEqualTo(1);
+
+        bulkhead.release(MS, AdaptiveBulkhead.Outcome.SUCCESS);
+        waiter.join(5000);
+    }
+
+    @Test
+    public void rejectAfterMaxWait() {
+        //given
+        AdaptiveBulkhead bulkhead = bulkhead(1, 10, Duration.ofMillis(50));
+        bulkhead.acquire();
+
+        //when, then
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadFullException.class);
+        assertThat(bulkhead.snapshot().waiting()).isZero();
+    }
+
+    @Test
+    public void additiveIncreaseWhenSaturated() {
+        //given : limit 1 을 모두 사용 중
+        AdaptiveBulkhead bulkhead = bulkhead(1, 10, Duration.ofMillis(50));
+        bulkhead.acquire();
+
+        //when : 빠른 성공
+        bulkhead.release(MS, AdaptiveBulkhead.Outcome.SUCCESS);
+
+        //then : 1 + 1/1
+        assertThat(bulkhead.snapshot().limit()).isEqualTo(2);
+    }
+
+    @Test
+    public void multiplicativeDecreaseOncePerRtt() {
+        //given : limit 10, 동시에 실행 중인 요청 3개
+        AdaptiveBulkhead bulkhead = bulkhead(10, 10, Duration.ofMillis(50));
+        for (int i = 0; i < 3; i++) {
+            bulkhead.acquire();
+        }
+
+        //when : 같은 시점에 시작한 요청들이 모두 timeout
+        clock.addAndGet(100 * MS);
+        bulkhead.release(100 * MS, AdaptiveBulkhead.Outcome.OVERLOAD);
+        bulkhead.release(100 * MS, AdaptiveBulkhead.Outcome.OVERLOAD);
+
+        //then : 한번만 감소 (10 * 0.9)
+        assertThat(bulkhead.snapshot().limit()).isEqualTo(9);
+        assertThat(bulkhead.snapshot().decreases()).isEqualTo(1);
+
+        //when : 감소 이후에 시작한 요청의 실패 -> 다시 감소 (9 * 0.9)
+        clock.addAndGet(20 * MS);
+        bulkhead.release(10 * MS, AdaptiveBulkhead.Outcome.OVERLOAD);
+
+        //then
+        assertThat(bulkhead.snapshot().limit()).isEqualTo(8);
+        assertThat(bulkhead.snapshot().decreases()).isEqualTo(2);
+    }
+
+    @Test
+    public void slowResponseDecreases() {
+        AdaptiveBulkhead bulkhead = bulkhead(10, 10, Duration.ofMillis(50));
+        bulkhead.acquire();
+
+        clock.addAndGet(500 * MS);
+        bulkhead.release(500 * MS, AdaptiveBulkhead.Outcome.SUCCESS); //threshold(200ms) 초과
+
+        assertThat(bulkhead.snapshot().limit()).isEqualTo(9);
+    }
+
+    @Test
+    public void onlyTimeoutAndDataAccessAreFailures() {
+        assertThat(AdaptiveBulkhead.outcomeOf(null)).isEqualTo(AdaptiveBulkhead.Outcome.SUCCESS);
+        assertThat(AdaptiveBulkhead.outcomeOf(new QueryTimeoutException("timeout"))).isEqualTo(AdaptiveBulkhead.Outcome.OVERLOAD);
+        assertThat(AdaptiveBulkhead.outcomeOf(new IllegalStateException(new SQLTimeoutException())))
+                .isEqualTo(AdaptiveBulkhead.Outcome.OVERLOAD);
+        assertThat(AdaptiveBulkhead.outcomeOf(new IllegalArgumentException("bad request")))
+                .isEqualTo(AdaptiveBulkhead.Outcome.IGNORED);
+
+        //부하와 무관한 실패는 limit 을 바꾸지 않는다.
+        AdaptiveBulkhead bulkhead = bulkhead(10, 10, Duration.ofMillis(50));
+        bulkhead.acquire();
+        bulkhead.release(MS, AdaptiveBulkhead.Outcome.IGNORED);
+        assertThat(bulkhead.snapshot().limit()).isEqualTo(10);
+    }
+
+    @Test
+    public void serviceUnavailableWithRetryAfter() {
+        AdaptiveBulkhead bulkhead = bulkhead(1, 0, Duration.ofMillis(50));
+        bulkhead.acquire();
+
+        BulkheadFullException e = null;
+        try {
+            bulkhead.acquire();
+        } catch (BulkheadFullException rejected) {
+            e = rejected;
+        }
+
+        ResponseEntity<String> response = new BulkheadExceptionAdvice().bulkheadFull(e);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+    }
+
+    private AdaptiveBulkhead bulkhead(int initialLimit, int queueSize, Duration maxWait) {
+        BulkheadProperties.Limits limits = new BulkheadProperties.Limits();
+        limits.setInitialLimit(initialLimit);
+        limits.setMinLimit(1);
+        limits.setQueueSize(queueSize);
+        limits.setMaxWait(maxWait);
+        limits.setLatencyThreshold(Duration.ofMillis(200));
+        limits.setRetryAfter(Duration.ofSeconds(3));
+        return new AdaptiveBulkhead("test", limits, clock::get);
+    }
+
+    private static void awaitWaiting(AdaptiveBulkhead bulkhead, int waiting) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (bulkhead.snapshot().waiting() < waiting && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(bulkhead.snapshot().waiting()).isEqualTo(waiting);
+    }
+}
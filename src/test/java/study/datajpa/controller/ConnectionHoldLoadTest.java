@@ -0,0 +1,81 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitor.ConnectionUsageTracker;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/*
+요청당 커넥션 점유 시간 비교 (OSIV on / off)
+하위 클래스에서 spring.jpa.open-in-view 값을 바꿔서 실행한다.
+RANDOM_PORT context 를 각각 띄우므로 기본 test 에서는 제외 (@Tag 는 상속된다)
+ */
+@Tag("benchmark")
+abstract class ConnectionHoldLoadTest {
+
+    static final int THREADS = 8;
+    static final int REQUESTS_PER_THREAD = 50;
+
+    @Autowired TestRestTemplate restTemplate;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired ConnectionUsageTracker tracker;
+
+    @Test
+    public void connectionHoldTime() throws Exception {
+        //given
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+        Team team = teamRepository.save(new Team("teamA"));
+        for (int i = 0; i < 100; i++) {
+            memberRepository.save(new Member("user" + i, i, team));
+        }
+        tracker.reset();
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Integer>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                int ok = 0;
+                for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                    ResponseEntity<String> response = restTemplate.getForEntity("/members?size=20&expand=team", String.class);
+                    if (response.getStatusCode() == HttpStatus.OK) {
+                        ok++;
+                    }
+                }
+                return ok;
+            }));
+        }
+        int ok = 0;
+        for (Future<Integer> future : futures) {
+            ok += future.get();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        executor.shutdown();
+
+        //then
+        ConnectionUsageTracker.Stats stats = tracker.stats();
+        System.out.println(getClass().getSimpleName() + " requests = " + ok + ", elapsed = " + elapsedMillis + "ms");
+        System.out.println(getClass().getSimpleName() + " connection = " + stats);
+
+        assertThat(ok).isEqualTo(THREADS * REQUESTS_PER_THREAD);
+        assertThat(stats.borrows()).isGreaterThan(0);
+    }
+}
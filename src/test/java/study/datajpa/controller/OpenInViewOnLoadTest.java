@@ -0,0 +1,8 @@
+package study.datajpa.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.jpa.open-in-view=true", "spring.datasource.url=jdbc:h2:mem:osiv-on;DB_CLOSE_DELAY=-1"})
+class OpenInViewOnLoadTest extends ConnectionHoldLoadTest {
+}
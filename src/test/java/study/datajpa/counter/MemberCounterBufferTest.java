@@ -0,0 +1,108 @@
+package study.datajpa.counter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+import study.datajpa.invalidation.InvalidationBus;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamStatsRepository;
+import study.datajpa.shard.Shards;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//주기 flush 가 테스트 트랜잭션 밖에서 실행되지 않도록 간격을 늘린다.
+@SpringBootTest(properties = "member.counter-buffer.flush-interval=3600000")
+@Transactional
+class MemberCounterBufferTest {
+
+    @Autowired MemberCounterBuffer buffer;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired Shards shards;
+    @Autowired ObjectProvider<InvalidationBus> invalidationBus;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void coalesce() throws InterruptedException {
+        //given
+        Member member1 = memberRepository.save(new Member("member1", 10));
+        Member member2 = memberRepository.save(new Member("member2", 20));
+        em.flush();
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    buffer.addAge(member1.getId(), 1);
+                    buffer.addAge(member2.getId(), -1);
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        int rows = buffer.flush(); //update 2번
+        em.clear();
+
+        //then
+        assertThat(rows).isEqualTo(2);
+        assertThat(memberRepository.findById(member1.getId()).get().getAge()).isEqualTo(4010);
+        assertThat(memberRepository.findById(member2.getId()).get().getAge()).isEqualTo(-3980);
+    }
+
+    @Test
+    public void writeThroughAfterShutdown() throws InterruptedException {
+        //given : 공유 bean 대신 따로 만든 buffer 를 종료
+        MemberCounterBuffer local = new MemberCounterBuffer(jdbcTemplate, transactionManager, shards, invalidationBus,
+                1, 500, 3600000, 3, 0);
+        Member member = memberRepository.save(new Member("member1", 10));
+        em.flush();
+        local.shutdown();
+
+        //when : 종료 이후 들어온 값, max-pending 도 넘김
+        local.addAge(member.getId(), 5);
+        em.clear();
+
+        //then : 유실되지 않고 바로 반영
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(15);
+    }
+
+    @Test
+    public void teamStatsDelta() {
+        //given
+        Team team = new Team("teamA");
+        em.persist(team);
+        Member member1 = memberRepository.save(new Member("member1", 15, team));
+        Member member2 = memberRepository.save(new Member("member2", 21, team));
+        em.flush();
+
+        //when
+        buffer.addAge(member1.getId(), 10); //15 -> 25 : 구간 변경
+        buffer.addAge(member2.getId(), 1); //21 -> 22 : 구간 그대로
+        buffer.flush();
+        em.clear();
+
+        //then : 재계산 없이 증분만 반영
+        TeamStats stats = teamStatsRepository.findById(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(2);
+        assertThat(stats.getAgeSum()).isEqualTo(47);
+        assertThat(stats.getAgeHistogram().get(1)).isEqualTo(0);
+        assertThat(stats.getAgeHistogram().get(2)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,69 @@
+package study.datajpa.deadline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class DeadlineTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired EntityManagerFactory emf;
+    @Autowired QueryTimeoutStats queryTimeoutStats;
+
+    @AfterEach
+    void clear() {
+        Deadline.clear();
+    }
+
+    @Test
+    public void remainingBudgetBecomesTransactionTimeout() {
+        //given
+        Deadline.start(Duration.ofMillis(1500));
+
+        //when
+        Long ttl = new TransactionTemplate(transactionManager).execute(status -> {
+            EntityManagerHolder holder = (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+            return holder.getTimeToLiveInMillis();
+        });
+
+        //then : 초 단위로 올림 (2초)
+        assertThat(ttl).isBetween(1000L, 2000L);
+    }
+
+    @Test
+    public void exceededDeadlineIsCounted() {
+        //given
+        Deadline.start(Duration.ofMillis(1));
+        long before = queryTimeoutStats.counts().getOrDefault("MemberRepository.findByAge", 0L);
+        sleep(5);
+
+        //when, then
+        assertThatThrownBy(() -> memberRepository.findByAge(10, PageRequest.of(0, 10)))
+                .isInstanceOf(TransactionTimedOutException.class);
+        assertThat(queryTimeoutStats.counts()).containsEntry("MemberRepository.findByAge", before + 1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
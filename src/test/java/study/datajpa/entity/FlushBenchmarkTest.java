@@ -0,0 +1,73 @@
+package study.datajpa.entity;
+
+import org.hibernate.engine.spi.ManagedEntity;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+/*
+flush 시간, 영속 엔티티당 메모리 측정
+./gradlew benchmark                 -> 바이트코드 향상 o
+./gradlew benchmark -PplainEntities -> 바이트코드 향상 x (스냅샷 비교)
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class FlushBenchmarkTest {
+
+    static final int COUNT = 20_000;
+    static final int ROUNDS = 5;
+
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void flushManagedMembers() {
+        //given
+        Team team = new Team("teamA");
+        em.persist(team);
+        for (int i = 0; i < COUNT; i++) {
+            em.persist(new Member("member" + i, i % 100, team));
+            if (i % 1000 == 0) {
+                em.flush();
+                em.clear();
+                team = em.find(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        //when
+        long before = usedMemory();
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        long perEntity = (usedMemory() - before) / Math.max(1, members.size());
+
+        long totalNanos = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = round; i < members.size(); i += 10) { //10% 만 변경
+                members.get(i).setAge(members.get(i).getAge() + 1);
+            }
+            long start = System.nanoTime();
+            em.flush();
+            totalNanos += System.nanoTime() - start;
+        }
+
+        //then
+        System.out.println("enhanced = " + (SelfDirtinessTracker.class.isAssignableFrom(Member.class)
+                && ManagedEntity.class.isAssignableFrom(Member.class)));
+        System.out.println("managed entities = " + members.size());
+        System.out.println("avg flush = " + totalNanos / ROUNDS / 1_000_000 + "ms");
+        System.out.println("memory per managed entity ~ " + perEntity + " bytes");
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,89 @@
+package study.datajpa.fetch;
+
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BatchFetchStatsTest {
+
+    @PersistenceContext EntityManager em;
+    @Autowired BatchFetchStats stats;
+
+    @Test
+    public void perAssociationSizeAndPending() {
+        //given : 팀 3개, 각 팀 회원 2명
+        List<Team> teams = List.of(new Team("batchA"), new Team("batchB"), new Team("batchC"));
+        teams.forEach(em::persist);
+        for (Team team : teams) {
+            em.persist(new Member(team.getName() + "-1", 10, team));
+            em.persist(new Member(team.getName() + "-2", 20, team));
+        }
+        em.flush();
+        em.clear();
+
+        long before = initializations("Team.members");
+
+        //when : 컬렉션 3개가 대기 중인 상태에서 하나를 초기화 -> 한번에 3개
+        List<Team> loaded = em.createQuery("select t from Team t where t.name like 'batch%'", Team.class).getResultList();
+        loaded.get(0).getMembers().size();
+
+        //then
+        BatchFetchStats.Snapshot snapshot = snapshot("Team.members");
+        assertThat(snapshot.batchSize()).isEqualTo(50); //batch-fetch.sizes
+        assertThat(snapshot.initializations()).isEqualTo(before + 1);
+        assertThat(snapshot.maxPending()).isGreaterThanOrEqualTo(3);
+        assertThat(loaded).allMatch(t -> Hibernate.isInitialized(t.getMembers()));
+    }
+
+    @Test
+    public void memberTeamProxiesInOneBatch() {
+        //given : 회원 5명, 각자 다른 팀
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("proxyTeam" + i);
+            em.persist(team);
+            em.persist(new Member("proxyMember" + i, 10, team));
+        }
+        em.flush();
+        em.clear();
+
+        List<Member> members = em.createQuery("select m from Member m where m.username like 'proxyMember%'", Member.class)
+                .getResultList();
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        //when : 프록시 하나를 초기화 -> 대기 중인 Team 프록시를 in (...) 한번으로
+        members.get(0).getTeam().getName();
+
+        //then
+        assertThat(statistics.getPrepareStatementCount() - before).isEqualTo(1);
+        assertThat(members).allMatch(m -> Hibernate.isInitialized(m.getTeam()));
+        assertThat(snapshot("Team").batchSize()).isEqualTo(100); //batch-fetch.sizes.Team
+    }
+
+    private long initializations(String association) {
+        return stats.snapshots().stream()
+                .filter(s -> s.association().equals(association))
+                .mapToLong(BatchFetchStats.Snapshot::initializations)
+                .findFirst().orElse(0);
+    }
+
+    private BatchFetchStats.Snapshot snapshot(String association) {
+        return stats.snapshots().stream()
+                .filter(s -> s.association().equals(association))
+                .findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.fixture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//커밋된 데이터를 남기므로 별도 in-memory DB 사용
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:fixture;DB_CLOSE_DELAY=-1")
+class MemberDataGeneratorTest {
+
+    @Autowired MemberDataGenerator generator;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void generate() {
+        //when
+        generator.generate(FixtureSpec.of(10, 20_000));
+        generator.generate(FixtureSpec.of(10, 20_000).withMode(FixtureSpec.Mode.JDBC_BATCH));
+
+        //then
+        assertThat(jdbcTemplate.queryForObject("select count(*) from team", Long.class)).isEqualTo(20);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from member", Long.class)).isEqualTo(40_000);
+
+        //시퀀스는 할당한 구간 뒤에서 원래 increment 로 이어진다.
+        Long maxId = jdbcTemplate.queryForObject("select max(member_id) from member", Long.class);
+        Long next = jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class);
+        assertThat(next).isGreaterThan(maxId);
+        assertThat(jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class)).isEqualTo(next + 1);
+
+        //팀 크기는 치우쳐 있어야 한다. (Zipf)
+        Long largest = jdbcTemplate.queryForObject(
+                "select max(c) from (select count(*) c from member group by team_id)", Long.class);
+        assertThat(largest).isGreaterThan(40_000 / 20 * 2);
+
+        //username 중복 존재
+        Long duplicated = jdbcTemplate.queryForObject(
+                "select count(*) from (select username from member group by username having count(*) > 1)", Long.class);
+        assertThat(duplicated).isGreaterThan(0);
+
+        //team_stats 재계산
+        assertThat(jdbcTemplate.queryForObject("select sum(member_count) from team_stats", Long.class)).isEqualTo(40_000);
+    }
+}
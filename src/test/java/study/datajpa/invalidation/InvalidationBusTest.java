@@ -0,0 +1,145 @@
+package study.datajpa.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:invalidation;DB_CLOSE_DELAY=-1",
+        "invalidation.transport=loopback",
+        "invalidation.node-id=node-a"})
+class InvalidationBusTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TransactionTemplate tx;
+    @Autowired RecordingListener listener;
+
+    LoopbackTransport otherNode = new LoopbackTransport();
+    List<InvalidationMessage> received = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+
+    static class RecordingListener implements InvalidationListener {
+        final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void invalidate(Class<?> type, Set<Serializable> ids) {
+            calls.add(type.getSimpleName() + ids);
+        }
+
+        @Override
+        public void invalidateAll(Class<?> type) {
+            calls.add(type.getSimpleName() + "*");
+        }
+    }
+
+    @BeforeEach
+    public void setUp() {
+        otherNode.subscribe(received::add);
+        listener.calls.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        otherNode.close();
+    }
+
+    @Test
+    public void publishAfterCommitInOneMessage() {
+        //when
+        Long[] ids = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("teamA"));
+            Member member1 = memberRepository.save(new Member("member1", 10, team));
+            Member member2 = memberRepository.save(new Member("member2", 20, team));
+            assertThat(received).isEmpty(); //커밋 전
+            return new Long[]{team.getId(), member1.getId(), member2.getId()};
+        });
+
+        //then
+        assertThat(received).hasSize(1);
+        InvalidationMessage message = received.get(0);
+        assertThat(message.origin()).isEqualTo("node-a");
+        assertThat(message.ids().get("Team")).containsExactly(ids[0]);
+        assertThat(message.ids().get("Member")).containsExactlyInAnyOrder(ids[1], ids[2]);
+        assertThat(listener.calls).contains("Team[" + ids[0] + "]"); //자기 노드에도 적용
+    }
+
+    @Test
+    public void rollbackPublishesNothing() {
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("rollback", 10));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    public void requiresNewHasOwnBatch() {
+        TransactionTemplate requiresNew = new TransactionTemplate(tx.getTransactionManager());
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        //when
+        Long[] ids = tx.execute(status -> {
+            Member outer = memberRepository.save(new Member("outer", 10));
+            Member inner = requiresNew.execute(innerStatus -> memberRepository.save(new Member("inner", 20)));
+            return new Long[]{outer.getId(), inner.getId()};
+        });
+
+        //then : 안쪽 트랜잭션이 먼저 커밋, 바깥 트랜잭션의 변경과 섞이지 않는다.
+        assertThat(received).hasSize(2);
+        assertThat(received.get(0).ids().get("Member")).containsExactly(ids[1]);
+        assertThat(received.get(1).ids().get("Member")).containsExactly(ids[0]);
+        assertThat(received.get(1).keys().get("Member")).containsExactly("outer");
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesType() {
+        memberRepository.bulkAgePlus(20);
+
+        assertThat(received).hasSize(1);
+        assertThat(received.get(0).all()).containsExactly("Member");
+    }
+
+    @Test
+    public void receiveFromOtherNode() {
+        otherNode.publish(new InvalidationMessage("node-b", Map.of("Member", Set.of(1L, 2L)), Set.of("Team")));
+
+        assertThat(listener.calls).containsExactlyInAnyOrder("Member[1, 2]", "Team*");
+    }
+
+    @Test
+    public void encodeDecode() {
+        InvalidationMessage message = new InvalidationMessage("node-a", Map.of("Member", Set.of(3L)), Set.of("Team"));
+
+        InvalidationMessage decoded = InvalidationMessage.decode(message.encode());
+
+        assertThat(decoded).isEqualTo(message);
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.invalidation;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TablePollingTransportTest {
+
+    @Test
+    public void pollMessagesFromOtherNode() {
+        //given : 같은 DB 를 보는 두 노드
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:invalidation-table;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("create table if not exists cache_invalidation (" +
+                "id bigint auto_increment primary key, payload clob not null, created_at timestamp not null)");
+        jdbcTemplate.update("insert into cache_invalidation (payload, created_at) values ('old|Member=1|', current_timestamp)");
+
+        TablePollingTransport nodeA = new TablePollingTransport(jdbcTemplate, Duration.ofMinutes(10));
+        TablePollingTransport nodeB = new TablePollingTransport(jdbcTemplate, Duration.ofMinutes(10));
+        List<InvalidationMessage> received = new ArrayList<>();
+        nodeB.subscribe(received::add);
+
+        //when
+        InvalidationMessage message = new InvalidationMessage("node-a", Map.of("Member", Set.of(7L)), Set.of());
+        nodeA.publish(message);
+        nodeB.poll();
+        nodeB.poll(); //다시 읽어도 한 번만 전달
+
+        //then
+        assertThat(received).containsExactly(message); //시작 전 메시지(old)는 읽지 않는다.
+    }
+}
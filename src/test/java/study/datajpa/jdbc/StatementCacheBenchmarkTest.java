@@ -0,0 +1,104 @@
+package study.datajpa.jdbc;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+prepare 가 많은 리포지토리 작업 : PreparedStatement 캐시 사용 vs 미사용 (H2 TCP 서버)
+./gradlew benchmark --tests '*StatementCacheBenchmarkTest*'
+ */
+abstract class StatementCacheBenchmarkTest {
+
+    static final int MEMBERS = 10_000;
+    static final int ROUNDS = 3_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired StatementCacheStats stats;
+
+    static Server server;
+
+    static void startServer(DynamicPropertyRegistry registry, int port, boolean cache) throws SQLException, IOException {
+        server = Server.createTcpServer("-tcpPort", String.valueOf(port),
+                "-baseDir", Files.createTempDirectory("statement-cache").toString(), "-ifNotExists").start();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://localhost:" + port + "/benchmark");
+        registry.add("statement-cache.enabled", () -> cache);
+    }
+
+    @AfterAll
+    static void stop() {
+        server.stop();
+    }
+
+    @Tag("benchmark")
+    @SpringBootTest
+    static class Cached extends StatementCacheBenchmarkTest {
+
+        @DynamicPropertySource
+        static void properties(DynamicPropertyRegistry registry) throws SQLException, IOException {
+            startServer(registry, 9125, true);
+        }
+    }
+
+    @Tag("benchmark")
+    @SpringBootTest
+    static class Uncached extends StatementCacheBenchmarkTest {
+
+        @DynamicPropertySource
+        static void properties(DynamicPropertyRegistry registry) throws SQLException, IOException {
+            startServer(registry, 9126, false);
+        }
+    }
+
+    @Test
+    public void prepareHeavyWorkload() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < MEMBERS; i++) {
+                memberRepository.save(new Member("member" + i, i % 100));
+            }
+        });
+
+        //warm up
+        run(tx, ROUNDS / 10);
+        stats.reset();
+
+        long start = System.nanoTime();
+        run(tx, ROUNDS);
+        long nanos = System.nanoTime() - start;
+
+        StatementCacheStats.Stats s = stats.stats();
+        System.out.printf("%-10s %d rounds (findByUsername, findUser, findByAge page + count) : %d ms, %.1f rounds/sec, hit rate %.2f%n",
+                getClass().getSimpleName(), ROUNDS, nanos / 1_000_000, ROUNDS / (nanos / 1_000_000_000.0), s.hitRate());
+    }
+
+    //트랜잭션(커넥션 대여)마다 같은 SQL 을 다시 prepare 한다.
+    private void run(TransactionTemplate tx, int rounds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < rounds; i++) {
+            String username = "member" + random.nextInt(MEMBERS);
+            int age = random.nextInt(100);
+            tx.executeWithoutResult(status -> {
+                memberRepository.findByUsername(username);
+                memberRepository.findUser(username, age);
+                memberRepository.findByAge(age, PageRequest.of(1, 10));
+            });
+        }
+    }
+}
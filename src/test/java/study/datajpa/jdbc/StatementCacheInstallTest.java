@@ -0,0 +1,39 @@
+package study.datajpa.jdbc;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//p6spy 로 감싸진 실제 context 의 DataSource 에도 캐시가 설치되는지
+@SpringBootTest
+@Transactional
+class StatementCacheInstallTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired StatementCacheStats stats;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void repeatedFinderHitsCache() {
+        //given
+        memberRepository.save(new Member("cached"));
+        em.flush();
+        em.clear();
+        stats.reset();
+
+        //when : 같은 트랜잭션 -> 같은 물리 커넥션
+        memberRepository.findByUsername("cached");
+        memberRepository.findByUsername("cached");
+
+        //then
+        assertThat(stats.stats().hits()).isGreaterThan(0);
+    }
+}
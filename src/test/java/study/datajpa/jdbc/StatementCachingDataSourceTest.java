@@ -0,0 +1,84 @@
+package study.datajpa.jdbc;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StatementCachingDataSourceTest {
+
+    StatementCacheStats stats = new StatementCacheStats();
+    StatementCachingDataSource dataSource;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:statement-cache;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table if not exists t (id int primary key, name varchar(20))");
+            statement.execute("merge into t values (1, 'a'), (2, 'b')");
+        }
+        dataSource = new StatementCachingDataSource(h2, 2, stats);
+    }
+
+    @Test
+    public void reuseAfterClose() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            //when
+            PreparedStatement first = connection.prepareStatement("select name from t where id = ?");
+            first.setInt(1, 1);
+            first.setQueryTimeout(5);
+            assertThat(name(first.executeQuery())).isEqualTo("a");
+            first.close();
+
+            PreparedStatement second = connection.prepareStatement("select name from t where id = ?");
+
+            //then
+            assertThat(stats.stats().hits()).isEqualTo(1);
+            assertThat(first.isClosed()).isTrue();
+            assertThatThrownBy(first::executeQuery).isInstanceOf(SQLException.class);
+            assertThat(second.getQueryTimeout()).isZero(); //반납 시 되돌린다.
+            assertThatThrownBy(second::executeQuery).isInstanceOf(SQLException.class); //파라미터도 초기화
+            second.setInt(1, 2);
+            assertThat(name(second.executeQuery())).isEqualTo("b");
+            second.close();
+        }
+    }
+
+    @Test
+    public void sameSqlInUse() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("select name from t where id = ?");
+            PreparedStatement second = connection.prepareStatement("select name from t where id = ?");
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(stats.stats().inUse()).isEqualTo(1);
+            second.close();
+            first.close();
+        }
+    }
+
+    @Test
+    public void evictAndCloseWithConnection() throws SQLException {
+        long before = stats.stats().cached();
+        Connection connection = dataSource.getConnection();
+        for (int i = 1; i <= 3; i++) {
+            connection.prepareStatement("select name from t where id = " + i).close();
+        }
+
+        assertThat(stats.stats().evictions()).isEqualTo(1); //max-size 2
+        assertThat(stats.stats().cached() - before).isEqualTo(2);
+
+        connection.close();
+        assertThat(stats.stats().cached()).isEqualTo(before);
+    }
+
+    private static String name(ResultSet resultSet) throws SQLException {
+        resultSet.next();
+        return resultSet.getString(1);
+    }
+}
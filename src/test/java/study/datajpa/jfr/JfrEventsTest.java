@@ -0,0 +1,88 @@
+package study.datajpa.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:jfr-events;DB_CLOSE_DELAY=-1")
+class JfrEventsTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TransactionTemplate tx;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void recordWithProfile() throws Exception {
+        //given
+        Long memberId = tx.execute(status -> {
+            Team team = teamRepository.save(new Team("jfr-team"));
+            memberRepository.save(new Member("jfr1", 10, team));
+            return memberRepository.save(new Member("jfr2", 20, team)).getId();
+        });
+
+        Configuration profile;
+        try (Reader reader = new InputStreamReader(new ClassPathResource("jfr/data-jpa.jfc").getInputStream(), StandardCharsets.UTF_8)) {
+            profile = Configuration.create(reader);
+        }
+
+        //when
+        Path file = Files.createTempFile("data-jpa", ".jfr");
+        try (Recording recording = new Recording(profile)) {
+            recording.enable(RepositoryCallEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            tx.executeWithoutResult(status -> {
+                Member member = memberRepository.findById(memberId).orElseThrow();
+                Team team = member.getTeam();
+                assertThat(team.getName()).isEqualTo("jfr-team"); //Member.team
+                assertThat(team.getMembers()).hasSize(2); //Team.members
+                member.setAge(30);
+                memberRepository.findAll();
+            });
+            recording.stop();
+            recording.dump(file);
+        }
+
+        //then
+        Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("study.datajpa."))
+                .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+        Files.delete(file);
+
+        assertThat(events.get("study.datajpa.RepositoryCall"))
+                .anySatisfy(e -> {
+                    assertThat(e.getString("method")).isEqualTo("findAll");
+                    assertThat(e.getLong("resultCount")).isEqualTo(2);
+                });
+        assertThat(events.get("study.datajpa.LazyInitialization"))
+                .extracting(e -> e.getString("association"))
+                .contains("Team", "Team.members");
+        assertThat(events.get("study.datajpa.Flush"))
+                .anySatisfy(e -> assertThat(e.getInt("entityCount")).isGreaterThanOrEqualTo(3));
+        assertThat(events).containsKey("study.datajpa.ConnectionAcquire");
+    }
+}
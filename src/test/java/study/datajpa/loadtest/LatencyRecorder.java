@@ -0,0 +1,76 @@
+package study.datajpa.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/*
+응답 시간 기록 (마이크로초), 모든 샘플을 보관하고 끝난 뒤 정렬해서 백분위수를 계산한다.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1 << 16];
+    private int size;
+
+    synchronized void record(long micros) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = micros;
+    }
+
+    synchronized int count() {
+        return size;
+    }
+
+    synchronized Map<String, Double> percentiles() {
+        return percentiles(Arrays.copyOf(samples, size));
+    }
+
+    /*
+    closed-loop 보정 (coordinated omission)
+    느린 응답 동안 보내지 못한 요청들이 있었다고 보고, expectedInterval 간격으로 가상의 샘플을 추가한다. (HdrHistogram 방식)
+     */
+    synchronized Map<String, Double> correctedPercentiles(long expectedIntervalMicros) {
+        if (expectedIntervalMicros <= 0) {
+            return percentiles();
+        }
+
+        long[] corrected = Arrays.copyOf(samples, size);
+        int n = size;
+        for (int i = 0; i < size; i++) {
+            for (long missing = samples[i] - expectedIntervalMicros; missing >= expectedIntervalMicros; missing -= expectedIntervalMicros) {
+                if (n == corrected.length) {
+                    corrected = Arrays.copyOf(corrected, n * 2);
+                }
+                corrected[n++] = missing;
+            }
+        }
+        return percentiles(Arrays.copyOf(corrected, n));
+    }
+
+    synchronized long percentileMicros(double percentile) {
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return at(sorted, percentile);
+    }
+
+    private static Map<String, Double> percentiles(long[] values) {
+        Arrays.sort(values);
+        Map<String, Double> result = new LinkedHashMap<>();
+        result.put("p50", at(values, 50) / 1000.0);
+        result.put("p90", at(values, 90) / 1000.0);
+        result.put("p99", at(values, 99) / 1000.0);
+        result.put("p99.9", at(values, 99.9) / 1000.0);
+        result.put("max", values.length == 0 ? 0.0 : values[values.length - 1] / 1000.0);
+        return result;
+    }
+
+    private static long at(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.min(Math.max(index, 0), sorted.length - 1)];
+    }
+}
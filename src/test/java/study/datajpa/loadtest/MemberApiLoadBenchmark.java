@@ -0,0 +1,200 @@
+package study.datajpa.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.fixture.FixtureSpec;
+import study.datajpa.fixture.MemberDataGenerator;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+
+/*
+회원 API 부하 테스트 (in-memory H2)
+./gradlew loadTest -Pmembers=100000 -Pteams=100 -Pduration=10 -Pconcurrency=32 -Prate=2000
+
+- closed-loop : concurrency 개의 클라이언트가 응답을 받으면 바로 다음 요청
+- open-loop   : 초당 rate 개를 일정한 간격으로 전송, 응답 시간은 "보냈어야 하는 시점" 부터 측정 (coordinated omission 보정)
+결과는 JSON 파일로 저장한다. (커밋 별 비교)
+ */
+public class MemberApiLoadBenchmark {
+
+    static final int TEAMS = Integer.getInteger("loadtest.teams", 100);
+    static final int MEMBERS = Integer.getInteger("loadtest.members", 100_000);
+    static final int DURATION = Integer.getInteger("loadtest.duration", 10);
+    static final int WARMUP = Integer.getInteger("loadtest.warmup", 3);
+    static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    static final int RATE = Integer.getInteger("loadtest.rate", 1000);
+
+    static long firstMemberId;
+
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = SpringApplication.run(DataJpaApplication.class,
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--logging.level.org.hibernate.SQL=warn",
+                "--decorator.datasource.p6spy.enable-logging=false");
+        int exitCode = 0;
+        try {
+            seed(context);
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            Map<String, Object> result = run("http://localhost:" + port);
+            write(result);
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            context.close();
+        }
+        System.exit(exitCode);
+    }
+
+    static void seed(ConfigurableApplicationContext context) {
+        MemberDataGenerator.Result result = context.getBean(MemberDataGenerator.class).generate(FixtureSpec.of(TEAMS, MEMBERS));
+        firstMemberId = result.firstId() + TEAMS;
+        System.out.printf("seeded teams = %d, members = %d in %dms%n", TEAMS, MEMBERS, result.millis());
+    }
+
+    static Map<String, Object> run(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newFixedThreadPool(Math.max(4, CONCURRENCY)))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Map<String, IntFunction<String>> endpoints = new LinkedHashMap<>();
+        int pages = Math.max(1, MEMBERS / 20);
+        endpoints.put("/members", i -> baseUrl + "/members?page=" + (i % pages) + "&size=20");
+        endpoints.put("/members/{id}", i -> baseUrl + "/members/" + memberId(i));
+        endpoints.put("/members2/{id}", i -> baseUrl + "/members2/" + memberId(i));
+
+        List<Map<String, Object>> runs = new ArrayList<>();
+        for (Map.Entry<String, IntFunction<String>> endpoint : endpoints.entrySet()) {
+            closedLoop(client, endpoint.getValue(), WARMUP); //warm up
+            runs.add(report(endpoint.getKey(), "closed", closedLoop(client, endpoint.getValue(), DURATION)));
+            runs.add(report(endpoint.getKey(), "open", openLoop(client, endpoint.getValue(), DURATION)));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("commit", gitCommit());
+        result.put("timestamp", Instant.now().toString());
+        result.put("dataset", Map.of("teams", TEAMS, "members", MEMBERS));
+        result.put("config", Map.of("durationSeconds", DURATION, "warmupSeconds", WARMUP, "concurrency", CONCURRENCY, "rate", RATE));
+        result.put("runs", runs);
+        return result;
+    }
+
+    private static long memberId(int i) {
+        return firstMemberId + Math.floorMod(i * 2654435761L, MEMBERS);
+    }
+
+    static Run closedLoop(HttpClient client, IntFunction<String> url, int seconds) throws Exception {
+        Run run = new Run(seconds);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        AtomicLong sequence = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(CONCURRENCY);
+        for (int w = 0; w < CONCURRENCY; w++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request(url.apply((int) sequence.incrementAndGet())),
+                                HttpResponse.BodyHandlers.discarding());
+                        run.complete(start, response.statusCode());
+                    } catch (Exception e) {
+                        run.complete(start, -1);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        return run;
+    }
+
+    static Run openLoop(HttpClient client, IntFunction<String> url, int seconds) throws Exception {
+        Run run = new Run(seconds);
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / RATE;
+        long start = System.nanoTime();
+        long total = (long) RATE * seconds;
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        for (int i = 0; i < total; i++) {
+            long intended = start + i * periodNanos;
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.add(client.sendAsync(request(url.apply(i)), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> run.complete(intended, e == null ? response.statusCode() : -1)));
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).get(seconds + 60L, TimeUnit.SECONDS);
+        return run;
+    }
+
+    private static HttpRequest request(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    static Map<String, Object> report(String endpoint, String mode, Run run) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoint", endpoint);
+        result.put("mode", mode);
+        result.put("requests", run.latencies.count());
+        result.put("throughput", run.latencies.count() / (double) run.seconds);
+        result.put("status", new TreeMap<>(run.status));
+        result.put("latencyMs", run.latencies.percentiles());
+        if (mode.equals("closed")) {
+            //closed-loop 은 p50 을 요청 간격으로 보고 보정
+            result.put("correctedLatencyMs", run.latencies.correctedPercentiles(run.latencies.percentileMicros(50)));
+        }
+        System.out.println(result);
+        return result;
+    }
+
+    static void write(Map<String, Object> result) throws Exception {
+        String path = System.getProperty("loadtest.output", "build/loadtest/" + result.get("commit") + ".json");
+        File file = new File(path);
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, result);
+        System.out.println("result -> " + file.getAbsolutePath());
+    }
+
+    private static String gitCommit() {
+        try {
+            Process process = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+            String commit = new String(process.getInputStream().readAllBytes()).trim();
+            return process.waitFor() == 0 && !commit.isEmpty() ? commit : "unknown";
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    static class Run {
+
+        final int seconds;
+        final LatencyRecorder latencies = new LatencyRecorder();
+        final Map<Integer, Long> status = new ConcurrentHashMap<>();
+
+        Run(int seconds) {
+            this.seconds = seconds;
+        }
+
+        void complete(long startNanos, int statusCode) {
+            latencies.record((System.nanoTime() - startNanos) / 1000);
+            status.merge(statusCode, 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.monitor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:hibernate-metrics;DB_CLOSE_DELAY=-1")
+class HibernateMetricsTest {
+
+    @Autowired TestRestTemplate restTemplate;
+    @Autowired MemberRepository memberRepository;
+    @Autowired HibernateMetrics metrics;
+
+    @Test
+    public void perEndpointAndTransaction() {
+        //given
+        Member member = memberRepository.save(new Member("metrics", 10));
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            restTemplate.getForObject("/members/" + member.getId(), String.class);
+        }
+
+        //then
+        HibernateMetrics.Summary endpoint = metrics.report().endpoints().get("GET /members/{id}");
+        assertThat(endpoint.count()).isEqualTo(3);
+        assertThat(endpoint.entitiesLoaded()).isEqualTo(3); //요청마다 회원 1명
+        assertThat(endpoint.statements()).isGreaterThanOrEqualTo(6); //수정일 조회 + 회원 조회
+
+        HibernateMetrics.Summary transaction = metrics.report().transactions().get("MemberController.findMember");
+        assertThat(transaction.count()).isEqualTo(3);
+        assertThat(transaction.entitiesLoaded()).isEqualTo(3);
+    }
+}
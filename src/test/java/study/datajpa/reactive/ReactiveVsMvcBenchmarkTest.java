@@ -0,0 +1,77 @@
+package study.datajpa.reactive;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/*
+MVC(JPA) vs 리액티브(R2DBC) 조회 처리량, 스레드 수 비교
+./gradlew benchmark --tests '*ReactiveVsMvcBenchmarkTest'
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.datasource.url=jdbc:h2:mem:reactive-benchmark;DB_CLOSE_DELAY=-1")
+class ReactiveVsMvcBenchmarkTest {
+
+    static final int CONCURRENCY = 256;
+    static final int REQUESTS = 20_000;
+
+    @LocalServerPort int port;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @Test
+    public void compare() throws Exception {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+        Team team = teamRepository.save(new Team("teamA"));
+        for (int i = 0; i < 1000; i++) {
+            memberRepository.save(new Member("user" + i, i % 100, team));
+        }
+
+        HttpClient client = HttpClient.newHttpClient();
+        run(client, "mvc", "/members?size=20&expand=team"); //warm up
+        run(client, "reactive", "/reactive/members?size=20");
+
+        run(client, "mvc", "/members?size=20&expand=team");
+        run(client, "reactive", "/reactive/members?size=20");
+    }
+
+    private void run(HttpClient client, String name, String path) throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        Semaphore inFlight = new Semaphore(CONCURRENCY);
+        List<CompletableFuture<HttpResponse<Void>>> futures = new ArrayList<>();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight.acquire();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((r, e) -> inFlight.release()));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long errors = futures.stream().filter(f -> f.join().statusCode() != 200).count();
+        System.out.printf("%s: %.0f req/s, errors = %d, peak threads = %d%n",
+                name, REQUESTS / seconds, errors, threads.getPeakThreadCount());
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class BulkDeleteRepositoryTest {
+
+    @Autowired BulkDeleteRepository bulkDeleteRepository;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired TeamStatsRepository teamStatsRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void deleteTeamCascade() {
+        //given
+        Team team = new Team("bulkTeam");
+        em.persist(team);
+        Member member1 = new Member("bulk1", 10, team);
+        Member member2 = new Member("bulk2", 20, team);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+
+        //when
+        BulkDeleteRepository.Result result = bulkDeleteRepository.deleteTeamCascade(team.getId());
+
+        //then
+        assertThat(result.teams()).isEqualTo(1);
+        assertThat(result.members()).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse(); //영속성 컨텍스트에서 제거
+        assertThat(em.contains(team)).isFalse();
+        assertThat(memberRepository.findById(member1.getId())).isEmpty();
+        assertThat(teamRepository.findById(team.getId())).isEmpty();
+        assertThat(teamStatsRepository.findById(team.getId())).isEmpty();
+    }
+
+    @Test
+    public void deleteMembers() {
+        //given
+        Team team = new Team("bulkTeam");
+        em.persist(team);
+        Member member1 = new Member("bulkDelete", 10, team);
+        Member member2 = new Member("bulkKeep", 20, team);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+
+        //when
+        BulkDeleteRepository.Result result = bulkDeleteRepository.deleteMembers(MemberSpec.username("bulkDelete"));
+        em.clear();
+
+        //then
+        assertThat(result.members()).isEqualTo(1);
+        assertThat(memberRepository.findById(member1.getId())).isEmpty();
+        assertThat(memberRepository.findById(member2.getId())).isPresent();
+
+        TeamStats stats = teamStatsRepository.findById(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(1);
+        assertThat(stats.getAgeSum()).isEqualTo(20);
+    }
+}
@@ -0,0 +1,147 @@
+package study.datajpa.repository;
+
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+H2 저장 방식 비교 : TCP 서버 vs 내장 파일 vs 내장 메모리 매핑 파일 (같은 리포지토리 작업)
+./gradlew benchmark --tests '*H2StorageBenchmarkTest*'
+ */
+abstract class H2StorageBenchmarkTest {
+
+    static final int TEAMS = 10;
+    static final int MEMBERS = 20_000;
+    static final int READS = 5_000;
+    static final int QUERIES = 1_000;
+    static final int PAGES = 200;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Tag("benchmark")
+    @SpringBootTest
+    static class Tcp extends H2StorageBenchmarkTest {
+
+        static final int PORT = 9124;
+        static Server server;
+
+        @DynamicPropertySource
+        static void properties(DynamicPropertyRegistry registry) throws SQLException {
+            server = Server.createTcpServer("-tcpPort", String.valueOf(PORT), "-baseDir", tempDir().toString(), "-ifNotExists").start();
+            registry.add("spring.datasource.url", () -> "jdbc:h2:tcp://localhost:" + PORT + "/benchmark");
+        }
+
+        @AfterAll
+        static void stop() {
+            server.stop();
+        }
+    }
+
+    @Tag("benchmark")
+    @SpringBootTest
+    @ActiveProfiles("embedded")
+    static class EmbeddedFile extends H2StorageBenchmarkTest {
+
+        @DynamicPropertySource
+        static void properties(DynamicPropertyRegistry registry) {
+            registry.add("h2.file-mode", () -> "file");
+            registry.add("h2.path", () -> tempDir().resolve("benchmark").toString());
+        }
+    }
+
+    @Tag("benchmark")
+    @SpringBootTest
+    @ActiveProfiles("embedded")
+    static class MappedFile extends H2StorageBenchmarkTest {
+
+        @DynamicPropertySource
+        static void properties(DynamicPropertyRegistry registry) {
+            registry.add("h2.file-mode", () -> "nioMapped");
+            registry.add("h2.path", () -> tempDir().resolve("benchmark").toString());
+        }
+    }
+
+    @Test
+    public void repositoryWorkload() {
+        String mode = getClass().getSimpleName();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        //insert
+        long start = System.nanoTime();
+        List<Long> ids = tx.execute(status -> {
+            List<Long> result = new ArrayList<>(MEMBERS);
+            for (int t = 0; t < TEAMS; t++) {
+                Team team = teamRepository.save(new Team("team" + t));
+                for (int i = 0; i < MEMBERS / TEAMS; i++) {
+                    result.add(memberRepository.save(new Member("member" + result.size(), result.size() % 100, team)).getId());
+                }
+            }
+            return result;
+        });
+        print(mode, "insert", MEMBERS, start);
+
+        //단건 조회 : 트랜잭션(커넥션 획득 + 커밋)마다 한 건
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        start = System.nanoTime();
+        for (int i = 0; i < READS; i++) {
+            Long id = ids.get(random.nextInt(ids.size()));
+            tx.executeWithoutResult(status -> memberRepository.findById(id).orElseThrow());
+        }
+        print(mode, "findById", READS, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            String username = "member" + random.nextInt(MEMBERS);
+            tx.executeWithoutResult(status -> memberRepository.findByUsername(username));
+        }
+        print(mode, "findByUsername", QUERIES, start);
+
+        start = System.nanoTime();
+        for (int i = 0; i < PAGES; i++) {
+            PageRequest page = PageRequest.of(random.nextInt(10), 20);
+            int age = random.nextInt(100);
+            tx.executeWithoutResult(status -> memberRepository.findByAge(age, page));
+        }
+        print(mode, "findByAge page", PAGES, start);
+
+        start = System.nanoTime();
+        tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(0));
+        print(mode, "bulkAgePlus", 1, start);
+    }
+
+    private static void print(String mode, String name, int ops, long start) {
+        long nanos = System.nanoTime() - start;
+        System.out.printf("%-12s %-16s %8d ms, %10.1f ops/sec%n",
+                mode, name, nanos / 1_000_000, ops / (nanos / 1_000_000_000.0));
+    }
+
+    private static Path tempDir() {
+        try {
+            return Files.createTempDirectory("h2-benchmark");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
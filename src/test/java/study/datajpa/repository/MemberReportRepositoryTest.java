@@ -0,0 +1,53 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberReport;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberReportRepositoryTest {
+
+    @Autowired MemberReportRepository memberReportRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void findAllAndStream() {
+        //given
+        Team team = new Team("reportTeam");
+        em.persist(team);
+        em.persist(new Member("report1", 10, team));
+        em.persist(new Member("report2", 20, team));
+        em.persist(new Member("report3", 30));
+        em.flush();
+
+        //when
+        Page<MemberReport> page = memberReportRepository.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+        assertThat(page.getContent().get(0).age()).isGreaterThanOrEqualTo(page.getContent().get(1).age());
+
+        assertThat(memberReportRepository.findByTeamName("reportTeam"))
+                .extracting(MemberReport::username).containsExactly("report1", "report2");
+
+        try (Stream<MemberReport> stream = memberReportRepository.streamAll()) {
+            assertThat(stream.filter(r -> r.username().startsWith("report")))
+                    .extracting(MemberReport::teamName).containsExactly("reportTeam", "reportTeam", null);
+        }
+    }
+}
@@ -13,9 +13,11 @@ import study.datajpa.entity.Team;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -274,6 +276,27 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void findAllExpand() {
+        //given
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 20, teamA));
+
+        em.flush();
+        em.clear();
+
+        //when
+        Page<Member> expanded = memberRepository.findAll(PageRequest.of(0, 10, Sort.by("username")), Set.of("team"));
+
+        //then
+        assertThat(expanded.getTotalElements()).isEqualTo(2);
+        assertThat(expanded.getContent().get(0).getUsername()).isEqualTo("member1");
+        assertThat(em.getEntityManagerFactory().getPersistenceUnitUtil()
+                .isLoaded(expanded.getContent().get(0), "team")).isTrue(); //fetch join -> 프록시 x
+    }
+
     @Test
     public void queryHint() {
         //given
@@ -418,4 +441,53 @@ class MemberRepositoryTest {
             System.out.println("memberProjection.getTeamName() = " + memberProjection.getTeamName());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void statelessBulk() {
+        //given
+        Team team = teamRepository.save(new Team("statelessTeam"));
+        em.flush();
+        List<Member> members = List.of(new Member("stateless1", 10, team), new Member("stateless2", 20, team));
+
+        //when
+        int inserted = memberRepository.insertStateless(members);
+
+        //then
+        assertThat(inserted).isEqualTo(2);
+        assertThat(members.get(0).getCreatedDate()).isNotNull(); //auditing 직접 적용
+
+        List<Member> scanned = new ArrayList<>();
+        memberRepository.scanStateless(true, member -> {
+            if (member.getUsername().startsWith("stateless")) {
+                scanned.add(member);
+            }
+        });
+        assertThat(scanned).extracting(m -> m.getTeam().getName()).containsOnly("statelessTeam");
+
+        Member first = scanned.get(0);
+        first.setAge(99);
+        memberRepository.updateStateless(List.of(first));
+        assertThat(memberRepository.deleteStateless(List.of(scanned.get(1).getId()))).isEqualTo(1);
+
+        em.clear();
+        assertThat(memberRepository.findById(first.getId()).get().getAge()).isEqualTo(99);
+        assertThat(memberRepository.findById(scanned.get(1).getId())).isEmpty();
+    }
+
+    @Test
+    public void versionsWithTeam() {
+        //given
+        Team team = teamRepository.save(new Team("versionTeam"));
+        memberRepository.save(new Member("version1", 10, team));
+        memberRepository.save(new Member("version2", 20)); //팀 없음
+        em.flush();
+
+        //when
+        Page<MemberVersion> versions = memberRepository.findVersionsBy(PageRequest.of(0, 10, Sort.by("id")));
+
+        //then : left join -> 팀 없는 회원도 포함
+        assertThat(versions.getTotalElements()).isEqualTo(2);
+        assertThat(versions.getContent().get(0).getTeamLastModifiedDate()).isNotNull();
+        assertThat(versions.getContent().get(1).getTeamLastModifiedDate()).isNull();
+    }
+}
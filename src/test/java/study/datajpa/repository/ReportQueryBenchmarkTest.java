@@ -0,0 +1,81 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+
+/*
+리포트 조회 : JPA 네이티브 프로젝션(findByNativeProjection) vs JDBC(MemberReportRepository)
+팀이 하나뿐이라 findByNativeProjection 의 (조인 조건 없는) left join 도 회원 수 만큼만 나온다.
+./gradlew benchmark --tests '*ReportQueryBenchmarkTest'
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:report-benchmark;DB_CLOSE_DELAY=-1")
+class ReportQueryBenchmarkTest {
+
+    static final int COUNT = 50_000;
+    static final int PAGE_SIZE = 1000;
+    static final int ROUNDS = 5;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired MemberReportRepository memberReportRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void nativeProjectionVsJdbc() {
+        Team team = teamRepository.save(new Team("report"));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++) {
+            Member member = new Member("member" + i, i % 100);
+            member.setTeam(team);
+            members.add(member);
+        }
+        memberRepository.insertStateless(members);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+
+        for (int round = 0; round < ROUNDS; round++) { //앞쪽은 워밍업
+            measure("jpa native projection", () -> tx.execute(status -> scanPages(page ->
+                    memberRepository.findByNativeProjection(PageRequest.of(page, PAGE_SIZE)))));
+            measure("jdbc record", () -> tx.execute(status -> scanPages(page ->
+                    memberReportRepository.findAll(PageRequest.of(page, PAGE_SIZE)))));
+            measure("jdbc stream", () -> tx.execute(status -> {
+                try (var stream = memberReportRepository.streamAll()) {
+                    return (int) stream.count();
+                }
+            }));
+        }
+    }
+
+    private static int scanPages(IntFunction<Page<?>> query) {
+        int rows = 0;
+        for (int page = 0; ; page++) {
+            Page<?> result = query.apply(page);
+            rows += result.getNumberOfElements();
+            if (!result.hasNext()) {
+                return rows;
+            }
+        }
+    }
+
+    private static void measure(String name, IntSupplier work) {
+        long start = System.nanoTime();
+        int rows = work.getAsInt();
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("%-22s rows = %,d, %.1f ms, rows/sec = %,.0f%n", name, rows, millis, rows / (millis / 1000));
+    }
+}
@@ -0,0 +1,96 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+stateful(EntityManager) vs stateless(StatelessSession) 배치 처리 비교 : 처리량(rows/sec), 힙 사용량
+./gradlew benchmark --tests '*StatelessBenchmarkTest'
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:stateless-benchmark;DB_CLOSE_DELAY=-1")
+class StatelessBenchmarkTest {
+
+    static final int COUNT = 100_000;
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void insertAndScan() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        //insert
+        long before = usedMemory();
+        long start = System.nanoTime();
+        long statefulHeap = tx.execute(status -> {
+            memberRepository.saveAll((Iterable<Member>) () -> members("stateful"));
+            memberRepository.flush();
+            return usedMemory() - before; //커밋 전 : 모든 엔티티가 영속성 컨텍스트에 남아 있다.
+        });
+        print("stateful insert", start, statefulHeap);
+
+        long before2 = usedMemory();
+        start = System.nanoTime();
+        memberRepository.insertStateless(() -> members("stateless"));
+        print("stateless insert", start, usedMemory() - before2);
+
+        //scan
+        long before3 = usedMemory();
+        start = System.nanoTime();
+        long scanHeap = tx.execute(status -> {
+            List<Member> all = memberRepository.findAll();
+            return all.isEmpty() ? 0 : usedMemory() - before3;
+        });
+        print("stateful scan", start, scanHeap);
+
+        long before4 = usedMemory();
+        AtomicLong peak = new AtomicLong();
+        AtomicLong rows = new AtomicLong();
+        start = System.nanoTime();
+        memberRepository.scanStateless(false, member -> {
+            if (rows.incrementAndGet() % 20_000 == 0) {
+                peak.accumulateAndGet(usedMemory() - before4, Math::max);
+            }
+        });
+        print("stateless scan", start, peak.get());
+    }
+
+    //목록을 만들지 않고 하나씩 생성 (팀을 지정하면 Team.members 컬렉션이 모든 회원을 붙잡고 있게 된다.)
+    private static Iterator<Member> members(String prefix) {
+        return new Iterator<>() {
+            int i = 0;
+
+            @Override
+            public boolean hasNext() {
+                return i < COUNT;
+            }
+
+            @Override
+            public Member next() {
+                i++;
+                return new Member(prefix + i, i % 100);
+            }
+        };
+    }
+
+    private static void print(String name, long startNanos, long heapBytes) {
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+        System.out.printf("%-16s rows/sec = %,.0f, heap ~ %,d KB%n", name, COUNT / seconds, heapBytes / 1024);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
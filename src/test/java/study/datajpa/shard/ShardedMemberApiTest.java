@@ -0,0 +1,63 @@
+package study.datajpa.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//컨트롤러는 shard 를 모르고 MemberRepository 만 호출한다.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "sharding.enabled=true",
+        "sharding.shards[0].url=jdbc:h2:mem:api-shard0;DB_CLOSE_DELAY=-1",
+        "sharding.shards[1].url=jdbc:h2:mem:api-shard1;DB_CLOSE_DELAY=-1"
+})
+class ShardedMemberApiTest {
+
+    @Autowired TestRestTemplate restTemplate;
+    @Autowired Shards shards;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @Test
+    public void membersFromAllShards() {
+        //given : 팀 2개 -> shard 0, 1
+        List<Member> members = new ArrayList<>();
+        for (int t = 0; t < 2; t++) {
+            Team team = teamRepository.save(new Team("apiTeam" + t));
+            for (int i = 0; i < 3; i++) {
+                members.add(memberRepository.save(new Member("api" + t + i, i, team)));
+            }
+        }
+        assertThat(members).extracting(m -> shards.shardOf(m.getId())).containsOnly(0, 1);
+
+        //when
+        JsonNode all = restTemplate.getForObject("/members?size=20&expand=team", JsonNode.class);
+        JsonNode second = restTemplate.getForObject("/members?page=1&size=4", JsonNode.class);
+
+        //then : 전체 개수와 페이지 모두 두 shard 를 합친 결과
+        assertThat(all.get("totalElements").asLong()).isEqualTo(6);
+        List<Long> ids = new ArrayList<>();
+        List<String> teamNames = new ArrayList<>();
+        all.get("content").forEach(member -> {
+            ids.add(member.get("id").asLong());
+            teamNames.add(member.get("teamName").asText());
+        });
+        assertThat(ids).isSorted().containsExactlyInAnyOrderElementsOf(members.stream().map(Member::getId).toList());
+        assertThat(teamNames).contains("apiTeam0", "apiTeam1");
+        assertThat(second.get("content")).hasSize(2);
+
+        //단건 조회도 id 의 shard 로
+        Member onShard1 = members.stream().filter(m -> shards.shardOf(m.getId()) == 1).findFirst().get();
+        assertThat(restTemplate.getForObject("/members/" + onShard1.getId(), String.class)).isEqualTo(onShard1.getUsername());
+    }
+}
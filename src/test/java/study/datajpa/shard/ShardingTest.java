@@ -0,0 +1,142 @@
+package study.datajpa.shard;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "sharding.enabled=true",
+        "sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1"
+})
+class ShardingTest {
+
+    @Autowired Shards shards;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    public void routing() {
+        //given
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            teams.add(teamRepository.save(new Team("team" + i)));
+        }
+        for (int i = 0; i < 30; i++) {
+            memberRepository.save(new Member("member" + i, i, teams.get(i % 3)));
+        }
+
+        //then
+        assertThat(teams).extracting(team -> shards.shardOf(team.getId())).containsExactlyInAnyOrder(0, 1, 2);
+        for (Team team : teams) {
+            List<Member> members = memberRepository.findByTeamId(team.getId());
+            assertThat(members).hasSize(10);
+            assertThat(members).allMatch(m -> shards.shardOf(m.getId()) == shards.shardOf(team.getId())); //팀과 같은 shard
+        }
+
+        Member member = memberRepository.findByUsername("member7").get(0);
+        assertThat(memberRepository.findById(member.getId())).get()
+                .extracting(Member::getUsername).isEqualTo("member7");
+        assertThat(memberRepository.findOptionalByUsername("member8")).isPresent(); //모든 shard 중 한 곳에만 있다.
+    }
+
+    @Test
+    public void splitBatchesAndSumCounts() {
+        //given
+        List<Team> teams = teamRepository.saveAll(List.of(new Team("batchTeam0"), new Team("batchTeam1")));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            members.add(new Member("batch" + i, i, teams.get(i % 2)));
+        }
+        long before = memberRepository.count();
+
+        //when : 팀의 shard 별로 나눠서 저장
+        List<Member> saved = memberRepository.saveAll(members);
+
+        //then
+        assertThat(saved).hasSize(6);
+        assertThat(saved).allMatch(m -> shards.shardOf(m.getId()) == shards.shardOf(m.getTeam().getId()));
+        assertThat(memberRepository.count()).isEqualTo(before + 6);
+        assertThat(memberRepository.findAllById(saved.stream().map(Member::getId).toList())).hasSize(6);
+    }
+
+    @Test
+    public void readOtherShardInsideTransaction() {
+        //given
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            teams.add(teamRepository.save(new Team("txTeam" + i)));
+        }
+        Team other = teams.stream().filter(team -> shards.shardOf(team.getId()) != 0).findFirst().get();
+        Member member = memberRepository.save(new Member("txMember", 10, other));
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            //조회는 트랜잭션을 잠시 중단하고 다른 shard 로
+            assertThat(memberRepository.findById(member.getId())).isPresent();
+            assertThat(memberRepository.findByTeamId(other.getId())).hasSize(1);
+
+            //쓰기는 거절
+            assertThatThrownBy(() -> memberRepository.save(new Member("txMember2", 10, other)))
+                    .isInstanceOf(IllegalStateException.class);
+        });
+    }
+
+    @Test
+    public void pagingAcrossShards() {
+        //given
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            teams.add(teamRepository.save(new Team("pagingTeam" + i)));
+        }
+        for (int i = 0; i < 9; i++) {
+            memberRepository.save(new Member("paging" + i, 100 + i, teams.get(i % 3)));
+        }
+
+        //when
+        Page<Member> page = memberRepository.findAll(PageRequest.of(1, 3, Sort.by(Sort.Direction.DESC, "age")));
+
+        //then
+        assertThat(page.getContent()).extracting(Member::getAge).containsExactly(105, 104, 103);
+        assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(9);
+    }
+
+    @Test
+    public void rejectNestedSort() {
+        assertThatThrownBy(() -> memberRepository.findAll(PageRequest.of(0, 3, Sort.by("team.name"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void restartKeepsDataAndSequence() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("restartTeam"));
+        Member before = memberRepository.save(new Member("restart1", 10, team));
+
+        //when : ddl-auto 가 create 가 아닌 재시작
+        new ShardSchemaInitializer(shards, "none").initialize();
+        Member after = memberRepository.save(new Member("restart2", 10, team));
+
+        //then
+        assertThat(memberRepository.findById(before.getId())).isPresent();
+        assertThat(after.getId()).isGreaterThan(before.getId());
+        assertThat(shards.shardOf(after.getId())).isEqualTo(shards.shardOf(team.getId()));
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.snapshot;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.function.Supplier;
+
+/*
+10M 행 컬럼 스냅샷 : 행당 메모리, 집계 시간
+./gradlew benchmark --tests '*MemberSnapshotBenchmarkTest'
+ */
+@Tag("benchmark")
+class MemberSnapshotBenchmarkTest {
+
+    static final int ROWS = 10_000_000;
+    static final int TEAMS = 1000;
+    static final int DISTINCT_USERNAMES = 1_000_000;
+    static final int ROUNDS = 5;
+
+    @Test
+    public void tenMillionRows() {
+        SplittableRandom random = new SplittableRandom(42);
+        long before = usedMemory();
+
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder();
+        for (int i = 0; i < ROWS; i++) {
+            builder.add(i + 1, random.nextInt(80), (long) random.nextInt(TEAMS) + 1, "member" + random.nextInt(DISTINCT_USERNAMES));
+        }
+        MemberSnapshot snapshot = builder.build();
+        builder = null;
+
+        long bytes = usedMemory() - before;
+        System.out.printf("rows = %,d, heap ~ %,d MB, %.1f bytes/row (estimated %.1f)%n", snapshot.size(), bytes >> 20,
+                (double) bytes / ROWS, (double) snapshot.estimatedBytes() / ROWS);
+
+        for (int round = 0; round < ROUNDS; round++) { //앞쪽은 워밍업
+            measure("age histogram", () -> snapshot.ageHistogram(10, null));
+            measure("age stats (team)", () -> snapshot.ageStats(7L));
+            measure("count by team", snapshot::countByTeam);
+            measure("username lengths", snapshot::usernameLengths);
+        }
+    }
+
+    private static void measure(String name, Supplier<?> query) {
+        long start = System.nanoTime();
+        query.get();
+        System.out.printf("%-18s %.2f ms%n", name, (System.nanoTime() - start) / 1_000_000.0);
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,52 @@
+package study.datajpa.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberSnapshotTest {
+
+    @Test
+    public void aggregates() {
+        //given : 구간 분할이 일어나도록 충분히 많이
+        MemberSnapshot.Builder builder = new MemberSnapshot.Builder();
+        int rows = 300_000;
+        for (int i = 0; i < rows; i++) {
+            Long teamId = i % 3 == 0 ? null : (long) (i % 3);
+            builder.add(i + 1, i % 50, teamId, "member" + (i % 1000));
+        }
+
+        //when
+        MemberSnapshot snapshot = builder.build();
+
+        //then
+        assertThat(snapshot.size()).isEqualTo(rows);
+        assertThat(snapshot.username(1234)).isEqualTo("member234");
+
+        long[] histogram = snapshot.ageHistogram(10, null);
+        assertThat(histogram[0]).isEqualTo(rows / 5); //0~9
+        assertThat(histogram[5]).isZero();
+
+        MemberSnapshot.AgeStats all = snapshot.ageStats(null);
+        assertThat(all.count()).isEqualTo(rows);
+        assertThat(all.min()).isEqualTo(0);
+        assertThat(all.max()).isEqualTo(49);
+        assertThat(snapshot.ageStats(1L).count()).isEqualTo(rows / 3);
+
+        //대상이 없는 팀
+        MemberSnapshot.AgeStats empty = snapshot.ageStats(99L);
+        assertThat(empty.count()).isZero();
+        assertThat(empty.min()).isZero();
+        assertThat(empty.max()).isZero();
+
+        assertThat(snapshot.countByTeam())
+                .containsEntry(MemberSnapshot.NO_TEAM, (long) rows / 3)
+                .containsEntry(1L, (long) rows / 3)
+                .containsEntry(2L, (long) rows / 3);
+
+        MemberSnapshot.LengthStats lengths = snapshot.usernameLengths();
+        assertThat(lengths.distinct()).isEqualTo(1000);
+        assertThat(lengths.min()).isEqualTo("member0".length());
+        assertThat(lengths.max()).isEqualTo("member999".length());
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpa.stats;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.entity.TeamStats;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamStatsRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamStatsTest {
+
+    @PersistenceContext EntityManager em;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamStatsRepository teamStatsRepository;
+
+    @Test
+    public void incremental() {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 25, teamA);
+        Member member3 = new Member("member3", 40, teamB);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+
+        //when
+        member1.setAge(12); //나이 변경
+        member2.setTeam(teamB); //팀 변경
+        em.remove(member3); //삭제
+        em.flush();
+        em.clear();
+
+        //then
+        TeamStats statsA = teamStatsRepository.findById(teamA.getId()).get();
+        TeamStats statsB = teamStatsRepository.findById(teamB.getId()).get();
+
+        assertThat(statsA.getMemberCount()).isEqualTo(1);
+        assertThat(statsA.getAgeSum()).isEqualTo(12);
+        assertThat(statsA.getAgeHistogram().get(1)).isEqualTo(1);
+        assertThat(statsA.getAgeHistogram().get(2)).isEqualTo(0);
+
+        assertThat(statsB.getMemberCount()).isEqualTo(1);
+        assertThat(statsB.getAgeSum()).isEqualTo(25);
+        assertThat(statsB.getAgeHistogram().get(2)).isEqualTo(1);
+        assertThat(statsB.getAgeHistogram().get(4)).isEqualTo(0);
+    }
+
+    @Test
+    public void bulkAgePlus() {
+        //given
+        Team team = new Team("teamA");
+        em.persist(team);
+        em.persist(new Member("member1", 19, team));
+        em.persist(new Member("member2", 30, team));
+        em.flush();
+
+        //when
+        memberRepository.bulkAgePlus(19);
+
+        //then
+        TeamStats stats = teamStatsRepository.findById(team.getId()).get();
+        assertThat(stats.getMemberCount()).isEqualTo(2);
+        assertThat(stats.getAgeSum()).isEqualTo(51);
+        assertThat(stats.getAgeHistogram().get(1)).isNull(); //rebuild -> 0 인 구간은 없다.
+        assertThat(stats.getAgeHistogram().get(2)).isEqualTo(1);
+        assertThat(stats.getAgeHistogram().get(3)).isEqualTo(1);
+    }
+}